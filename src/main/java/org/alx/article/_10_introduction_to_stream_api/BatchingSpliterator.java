@@ -0,0 +1,78 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Adapter for sources that can only be iterated (linked structures, cursors, generators).
+// Every trySplit() copies the next batch from the iterator into an array and hands it out as a
+// SIZED | SUBSIZED array spliterator, which the stream framework can split evenly across workers.
+// Batches double from MIN_BATCH up to MAX_BATCH, powers of two, so short sources still split early
+// and long ones are not cut into millions of tiny tasks.
+public class BatchingSpliterator<T> implements Spliterator<T> {
+    static final int MIN_BATCH = 1 << 10;
+    static final int MAX_BATCH = 1 << 20;
+
+    private final Iterator<? extends T> iterator;
+    private final int characteristics;
+    private long estimate;
+    private int batch = MIN_BATCH;
+
+    public BatchingSpliterator(Iterator<? extends T> iterator, long estimatedSize, int characteristics) {
+        this.iterator = iterator;
+        this.estimate = estimatedSize;
+        this.characteristics = characteristics & ~(SIZED | SUBSIZED);
+    }
+
+    public static <T> Stream<T> stream(Iterator<? extends T> iterator, boolean parallel) {
+        return StreamSupport.stream(new BatchingSpliterator<>(iterator, Long.MAX_VALUE, ORDERED), parallel);
+    }
+
+    public static <T> Stream<T> stream(Iterable<? extends T> iterable, boolean parallel) {
+        return stream(iterable.iterator(), parallel);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Object[] array = new Object[batch];
+        int count = 0;
+        while (count < array.length && iterator.hasNext()) {
+            array[count++] = iterator.next();
+        }
+        batch = Math.min(MAX_BATCH, batch << 1);
+        if (estimate != Long.MAX_VALUE) {
+            estimate = Math.max(0, estimate - count);
+        }
+        return Spliterators.spliterator(array, 0, count, characteristics | SIZED | SUBSIZED);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        action.accept(iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        iterator.forEachRemaining(action);
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
@@ -0,0 +1,150 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Append-only list stored as an array of fixed-size chunks:
+// - growing never copies the elements, only the small array of chunk references
+// - the spliterator is SIZED and SUBSIZED and splits on chunk boundaries,
+//   so a parallel stream gets balanced halves down to single chunks
+public final class ChunkedList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Object[][] chunks = new Object[8][];
+    private int size;
+
+    public ChunkedList() {
+    }
+
+    public ChunkedList(Collection<? extends T> elements) {
+        addAll(elements);
+    }
+
+    public static <T> ChunkedList<T> from(Iterator<? extends T> iterator) {
+        ChunkedList<T> list = new ChunkedList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        Objects.checkIndex(index, size);
+        Object[] chunk = chunks[index >>> CHUNK_SHIFT];
+        T previous = (T) chunk[index & CHUNK_MASK];
+        chunk[index & CHUNK_MASK] = element;
+        return previous;
+    }
+
+    @Override
+    public boolean add(T element) {
+        int chunk = size >>> CHUNK_SHIFT;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Object[CHUNK_SIZE];
+        }
+        chunks[chunk][size & CHUNK_MASK] = element;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ChunkSpliterator(0, size);
+    }
+
+    private final class ChunkSpliterator implements Spliterator<T> {
+        private final int expectedModCount = modCount;
+        private int index;
+        private final int fence;
+
+        ChunkSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int remaining = fence - index;
+            if (remaining <= CHUNK_SIZE) {
+                return null;
+            }
+            // Split in the middle, rounded to a chunk boundary so each half reads whole chunks
+            int mid = ((index + remaining / 2) + CHUNK_MASK) & ~CHUNK_MASK;
+            if (mid <= index || mid >= fence) {
+                return null;
+            }
+            ChunkSpliterator prefix = new ChunkSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept((T) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK]);
+            index++;
+            checkForComodification();
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            int i = index;
+            index = fence;
+            while (i < fence) {
+                Object[] chunk = chunks[i >>> CHUNK_SHIFT];
+                int end = Math.min(fence, (i | CHUNK_MASK) + 1);
+                for (int j = i & CHUNK_MASK, last = j + (end - i); j < last; j++) {
+                    action.accept((T) chunk[j]);
+                }
+                i = end;
+            }
+            checkForComodification();
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class ColumnarPersonExample {
+    private static final int PERSONS = 1_000_000;
+    private static final int TRANSACTIONS_PER_PERSON = 10;
+
+    public static void main(String[] args) {
+        pipelinesExample();
+        heapComparison();
+    }
+
+    // Same data and output as StreamApiExample.pipelinesExample
+    private static void pipelinesExample() {
+        PersonTable table = PersonTable.newBuilder()
+                .add("Alice", 0, 100, 200, 300)
+                .add("Bob", 0, 50, 150, 250, 350)
+                .add("Charlie", 0, 75, 125, 175)
+                .build();
+
+        System.out.println("Average Transaction Price:");
+        double[] averages = table.averageTransactionByName();
+        for (int id = 0; id < averages.length; id++) {
+            System.out.println(table.nameOf(id) + ": " + averages[id]);
+        }
+
+        // Output:
+        // Average Transaction Price:
+        // Alice: 200.0
+        // Bob: 200.0
+        // Charlie: 125.0
+    }
+
+    private static void heapComparison() {
+        Random random = new Random(42);
+        String[] names = {"Alice", "Bob", "Charlie", "David", "Eve", "Frank", "Grace", "Henry"};
+
+        long before = usedHeap();
+        List<Person> persons = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            List<Integer> transactions = new ArrayList<>(TRANSACTIONS_PER_PERSON);
+            for (int j = 0; j < TRANSACTIONS_PER_PERSON; j++) {
+                transactions.add(random.nextInt(1_000));
+            }
+            Person person = new Person(names[i % names.length], transactions);
+            person.setScore(random.nextInt(100));
+            persons.add(person);
+        }
+        long objectsHeap = usedHeap() - before;
+
+        before = usedHeap();
+        PersonTable table = PersonTable.of(persons);
+        long tableHeap = usedHeap() - before;
+
+        long start = System.nanoTime();
+        double objectsTotal = persons.stream()
+                .mapToDouble(person -> person.getTransactions().stream()
+                        .mapToDouble(Integer::doubleValue)
+                        .average()
+                        .orElse(0.0))
+                .sum();
+        long objectsNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        double tableTotal = Arrays.stream(table.averageTransactions(table.all())).sum();
+        long tableNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] highScores = table.filterByScore(score -> score >= 90);
+        long highScoreSum = table.sumScores(highScores);
+        long filterNanos = System.nanoTime() - start;
+
+        System.out.printf("Heap for %d persons: objects %d MB, columns %d MB%n",
+                PERSONS, objectsHeap >> 20, tableHeap >> 20);
+        System.out.printf("Average per person: objects %d ms, columns %d ms (%.1f vs %.1f)%n",
+                objectsNanos / 1_000_000, tableNanos / 1_000_000, objectsTotal, tableTotal);
+        System.out.printf("Filter score >= 90: %d rows, score sum %d in %d ms%n",
+                highScores.length, highScoreSum, filterNanos / 1_000_000);
+
+        Map<String, Long> rowsByName = Arrays.stream(table.all()).boxed()
+                .collect(Collectors.groupingBy(table::name, Collectors.counting()));
+        System.out.println("Rows by name: " + rowsByName);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
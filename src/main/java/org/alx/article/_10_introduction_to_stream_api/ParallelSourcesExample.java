@@ -0,0 +1,49 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+// parallelStreamExample over sources that split badly (LinkedList) compared with ChunkedList
+// and with the same LinkedList read through BatchingSpliterator
+public class ParallelSourcesExample {
+    private static final int PERSONS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<Person> linked = new LinkedList<>();
+        for (int i = 0; i < PERSONS; i++) {
+            linked.add(new Person("Person" + i, random.nextInt(100)));
+        }
+        ChunkedList<Person> chunked = new ChunkedList<>(linked);
+
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors());
+        measure("LinkedList sequential", () -> linked.stream().mapToLong(ParallelSourcesExample::work).sum());
+        measure("LinkedList parallel", () -> linked.parallelStream().mapToLong(ParallelSourcesExample::work).sum());
+        measure("BatchingSpliterator parallel", () -> BatchingSpliterator.stream(linked, true)
+                .mapToLong(ParallelSourcesExample::work).sum());
+        measure("ChunkedList parallel", () -> chunked.parallelStream().mapToLong(ParallelSourcesExample::work).sum());
+    }
+
+    // Some CPU work per element so that the split quality is what decides the run time
+    private static long work(Person person) {
+        long hash = person.getScore();
+        for (int i = 0; i < 200; i++) {
+            hash = hash * 31 + i;
+        }
+        return hash & 1;
+    }
+
+    private static void measure(String name, LongSupplier pipeline) {
+        long best = Long.MAX_VALUE;
+        long result = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            result = pipeline.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-30s best of %d: %5d ms (result %d)%n", name, ROUNDS, best / 1_000_000, result);
+    }
+}
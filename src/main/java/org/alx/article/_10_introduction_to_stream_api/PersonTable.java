@@ -0,0 +1,219 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+// Column-oriented storage of Person data: one primitive array per field instead of one object per person.
+// - scores:       int[] indexed by row
+// - transactions: all values in one int[], row i owns [offsets[i], offsets[i + 1])
+// - names:        dictionary encoded, every distinct name is stored once and rows keep an int id
+// Operators work on a selection vector, an int[] of row numbers, so filters do not copy any data.
+public class PersonTable {
+    private final Map<String, Integer> dictionaryIds;
+    private final String[] dictionary;
+    private final int[] nameIds;
+    private final int[] scores;
+    private final int[] offsets;
+    private final int[] transactions;
+    private final int rows;
+
+    private PersonTable(Map<String, Integer> dictionaryIds, String[] dictionary, int[] nameIds, int[] scores,
+                        int[] offsets, int[] transactions, int rows) {
+        this.dictionaryIds = dictionaryIds;
+        this.dictionary = dictionary;
+        this.nameIds = nameIds;
+        this.scores = scores;
+        this.offsets = offsets;
+        this.transactions = transactions;
+        this.rows = rows;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static PersonTable of(List<Person> persons) {
+        Builder builder = new Builder();
+        for (Person person : persons) {
+            List<Integer> personTransactions = person.getTransactions();
+            int[] values = personTransactions == null ? new int[0]
+                    : personTransactions.stream().mapToInt(Integer::intValue).toArray();
+            builder.add(person.getName(), person.getScore(), values);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public String name(int row) {
+        return dictionary[nameIds[row]];
+    }
+
+    // Distinct names get ids 0 .. nameCount() - 1 in the order they were first added
+    public int nameCount() {
+        return dictionary.length;
+    }
+
+    public String nameOf(int id) {
+        return dictionary[id];
+    }
+
+    public int score(int row) {
+        return scores[row];
+    }
+
+    public IntStream transactions(int row) {
+        return Arrays.stream(transactions, offsets[row], offsets[row + 1]);
+    }
+
+    // Filter operators, they return a selection vector of matching rows
+
+    public int[] all() {
+        return IntStream.range(0, rows).toArray();
+    }
+
+    public int[] filterByScore(IntPredicate predicate) {
+        return filterByScore(all(), predicate);
+    }
+
+    public int[] filterByScore(int[] selection, IntPredicate predicate) {
+        int[] result = new int[selection.length];
+        int count = 0;
+        for (int row : selection) {
+            if (predicate.test(scores[row])) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public int[] filterByName(String name) {
+        Integer id = dictionaryIds.get(name);
+        if (id == null) {
+            return new int[0];
+        }
+        int nameId = id;
+        return IntStream.range(0, rows).filter(row -> nameIds[row] == nameId).toArray();
+    }
+
+    // Map operators
+
+    public int[] mapScores(int[] selection, IntUnaryOperator mapper) {
+        int[] result = new int[selection.length];
+        for (int i = 0; i < selection.length; i++) {
+            result[i] = mapper.applyAsInt(scores[selection[i]]);
+        }
+        return result;
+    }
+
+    // Aggregate operators
+
+    public long sumScores(int[] selection) {
+        long sum = 0;
+        for (int row : selection) {
+            sum += scores[row];
+        }
+        return sum;
+    }
+
+    public long sumTransactions(int row) {
+        long sum = 0;
+        for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+            sum += transactions[i];
+        }
+        return sum;
+    }
+
+    public double averageTransaction(int row) {
+        int count = offsets[row + 1] - offsets[row];
+        return count == 0 ? 0.0 : (double) sumTransactions(row) / count;
+    }
+
+    // Equivalent of StreamApiExample.pipelinesExample, one tight loop per person and no boxed Integer
+    public double[] averageTransactions(int[] selection) {
+        double[] result = new double[selection.length];
+        for (int i = 0; i < selection.length; i++) {
+            result[i] = averageTransaction(selection[i]);
+        }
+        return result;
+    }
+
+    // Average transaction per distinct name, indexed by name id (see nameOf): every transaction of every row
+    // with the name counts once, so rows sharing a name are averaged together rather than overwriting each other
+    public double[] averageTransactionByName() {
+        long[] sums = new long[dictionary.length];
+        int[] counts = new int[dictionary.length];
+        for (int row = 0; row < rows; row++) {
+            sums[nameIds[row]] += sumTransactions(row);
+            counts[nameIds[row]] += offsets[row + 1] - offsets[row];
+        }
+        double[] result = new double[sums.length];
+        for (int id = 0; id < result.length; id++) {
+            result[id] = counts[id] == 0 ? 0.0 : (double) sums[id] / counts[id];
+        }
+        return result;
+    }
+
+    public static class Builder {
+        private final Map<String, Integer> dictionaryIds = new HashMap<>();
+        private String[] dictionary = new String[16];
+        private int[] nameIds = new int[16];
+        private int[] scores = new int[16];
+        private int[] offsets = new int[17];
+        private int[] transactions = new int[64];
+        private int rows;
+        private int transactionCount;
+
+        private Builder() {
+        }
+
+        public Builder add(String name, int score, int... personTransactions) {
+            if (rows == scores.length) {
+                int capacity = rows * 2;
+                nameIds = Arrays.copyOf(nameIds, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                offsets = Arrays.copyOf(offsets, capacity + 1);
+            }
+            if (transactionCount + personTransactions.length > transactions.length) {
+                transactions = Arrays.copyOf(transactions,
+                        Math.max(transactions.length * 2, transactionCount + personTransactions.length));
+            }
+
+            Integer id = dictionaryIds.get(name);
+            if (id == null) {
+                id = dictionaryIds.size();
+                dictionaryIds.put(name, id);
+                if (id == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, id * 2);
+                }
+                dictionary[id] = name;
+            }
+
+            nameIds[rows] = id;
+            scores[rows] = score;
+            System.arraycopy(personTransactions, 0, transactions, transactionCount, personTransactions.length);
+            transactionCount += personTransactions.length;
+            offsets[++rows] = transactionCount;
+
+            return this;
+        }
+
+        public PersonTable build() {
+            return new PersonTable(
+                    new HashMap<>(dictionaryIds),
+                    Arrays.copyOf(dictionary, dictionaryIds.size()),
+                    Arrays.copyOf(nameIds, rows),
+                    Arrays.copyOf(scores, rows),
+                    Arrays.copyOf(offsets, rows + 1),
+                    Arrays.copyOf(transactions, transactionCount),
+                    rows);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class QueryEngineExample {
+    private static final int PERSONS = 2_000_000;
+    private static final int REPEATS = 100;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        String[] names = {"Alice", "Bob", "Charlie", "David", "Eve", "Frank", "Grace", "Henry"};
+        List<Person> persons = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            persons.add(new Person(names[random.nextInt(names.length)] + i % 1000, random.nextInt(100_000)));
+        }
+
+        QueryableCollection<Person> collection = QueryableCollection.<Person>of(persons)
+                .intField("score", Person::getScore)
+                .field("name", Person::getName)
+                .sortedIndex("score")
+                .hashIndex("name");
+
+        // Top 3 by score, as in StreamApiExample.sortedExample
+        QueryableCollection<Person>.Query top3 = collection.query()
+                .where(person -> person.getScore() > 0)
+                .orderByDescending("score")
+                .limit(3);
+        System.out.println(top3.explain());
+        measure("stream sorted+limit", () -> persons.stream()
+                .filter(person -> person.getScore() > 0)
+                .sorted(Comparator.comparingInt(Person::getScore).reversed())
+                .limit(3)
+                .collect(Collectors.toList()));
+        measure("index walk", top3::list);
+
+        QueryableCollection<Person>.Query range = collection.query()
+                .whereBetween("score", 50_000, 50_100)
+                .orderBy("score");
+        System.out.println(range.explain());
+        measure("stream range filter", () -> persons.stream()
+                .filter(person -> person.getScore() >= 50_000 && person.getScore() <= 50_100)
+                .sorted(Comparator.comparingInt(Person::getScore))
+                .collect(Collectors.toList()));
+        measure("index range scan", range::list);
+
+        QueryableCollection<Person>.Query byName = collection.query()
+                .whereEquals("name", "Alice7")
+                .whereAtLeast("score", 90_000);
+        System.out.println(byName.explain());
+        measure("stream name filter", () -> persons.stream()
+                .filter(person -> person.getName().equals("Alice7") && person.getScore() >= 90_000)
+                .collect(Collectors.toList()));
+        measure("hash lookup", byName::list);
+
+        System.out.println("Groups of the score range by name: " + range.groupBy("name").size());
+    }
+
+    private static void measure(String name, Supplier<List<Person>> query) {
+        List<Person> result = query.get(); // the first call also builds the indexes
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            result = query.get();
+        }
+        long micros = (System.nanoTime() - start) / REPEATS / 1_000;
+        System.out.printf("  %-22s %8d us per query, %d rows%n", name, micros, result.size());
+    }
+}
@@ -0,0 +1,466 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+// Small in-memory query engine over a list of objects.
+// Fields are registered by name, indexes can be created on them, and queries are described declaratively
+// so the planner can choose how to read the rows:
+// - equality on a hash-indexed field          -> hash index lookup
+// - range or equality on a sorted-indexed int field -> index range scan (binary search on both bounds)
+// - order by a sorted-indexed field + limit   -> index walk in key order, stops after limit matches
+// - anything else                             -> full scan
+// Conditions the access path does not cover are applied to the candidate rows only.
+// Indexes are rebuilt lazily on the first query after the collection was modified.
+public class QueryableCollection<T> {
+    private final List<T> rows = new ArrayList<>();
+    private final Map<String, ToIntFunction<? super T>> intFields = new HashMap<>();
+    private final Map<String, Function<? super T, ?>> fields = new HashMap<>();
+    private final Map<String, SortedIndex> sortedIndexes = new HashMap<>();
+    private final Map<String, HashIndex> hashIndexes = new HashMap<>();
+    private int modCount;
+
+    public static <T> QueryableCollection<T> of(Collection<? extends T> elements) {
+        QueryableCollection<T> collection = new QueryableCollection<>();
+        collection.addAll(elements);
+        return collection;
+    }
+
+    public QueryableCollection<T> intField(String name, ToIntFunction<? super T> getter) {
+        intFields.put(name, getter);
+        fields.put(name, element -> getter.applyAsInt(element));
+        return this;
+    }
+
+    public QueryableCollection<T> field(String name, Function<? super T, ?> getter) {
+        fields.put(name, getter);
+        return this;
+    }
+
+    public QueryableCollection<T> sortedIndex(String intField) {
+        sortedIndexes.put(intField, new SortedIndex(intGetter(intField)));
+        return this;
+    }
+
+    public QueryableCollection<T> hashIndex(String field) {
+        hashIndexes.put(field, new HashIndex(getter(field)));
+        return this;
+    }
+
+    public void add(T element) {
+        rows.add(element);
+        modCount++;
+    }
+
+    public void addAll(Collection<? extends T> elements) {
+        rows.addAll(elements);
+        modCount++;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    private ToIntFunction<? super T> intGetter(String name) {
+        ToIntFunction<? super T> getter = intFields.get(name);
+        if (getter == null) {
+            throw new IllegalArgumentException("Unknown int field: " + name);
+        }
+        return getter;
+    }
+
+    private Function<? super T, ?> getter(String name) {
+        Function<? super T, ?> getter = fields.get(name);
+        if (getter == null) {
+            throw new IllegalArgumentException("Unknown field: " + name);
+        }
+        return getter;
+    }
+
+    public class Query {
+        private final List<Condition> conditions = new ArrayList<>();
+        private String orderField;
+        private boolean descending;
+        private int limit = Integer.MAX_VALUE;
+
+        private Query() {
+        }
+
+        // Inclusive range on an int field
+        public Query whereBetween(String intField, int low, int high) {
+            ToIntFunction<? super T> getter = intGetter(intField);
+            conditions.add(new Condition(intField, low, high, null, element -> {
+                int value = getter.applyAsInt(element);
+                return value >= low && value <= high;
+            }));
+            return this;
+        }
+
+        public Query whereAtLeast(String intField, int low) {
+            return whereBetween(intField, low, Integer.MAX_VALUE);
+        }
+
+        public Query whereAtMost(String intField, int high) {
+            return whereBetween(intField, Integer.MIN_VALUE, high);
+        }
+
+        public Query whereEquals(String field, Object value) {
+            Objects.requireNonNull(value, "value");
+            Function<? super T, ?> getter = getter(field);
+            // On an int field it is also the range [value, value], so a sorted index can serve it
+            int key = value instanceof Integer i && intFields.containsKey(field) ? i : 0;
+            conditions.add(new Condition(field, key, key, value, element -> value.equals(getter.apply(element))));
+            return this;
+        }
+
+        // Opaque predicate, never served by an index
+        public Query where(Predicate<? super T> predicate) {
+            conditions.add(new Condition(null, 0, 0, null, predicate));
+            return this;
+        }
+
+        public Query orderBy(String intField) {
+            intGetter(intField);
+            this.orderField = intField;
+            this.descending = false;
+            return this;
+        }
+
+        public Query orderByDescending(String intField) {
+            orderBy(intField);
+            this.descending = true;
+            return this;
+        }
+
+        public Query limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("limit must not be negative: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public List<T> list() {
+            return plan().execute();
+        }
+
+        public <K> Map<K, List<T>> groupBy(String field) {
+            Function<? super T, ?> getter = getter(field);
+            Map<K, List<T>> groups = new LinkedHashMap<>();
+            for (T element : list()) {
+                @SuppressWarnings("unchecked")
+                K key = (K) getter.apply(element);
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(element);
+            }
+            return groups;
+        }
+
+        public String explain() {
+            return plan().toString();
+        }
+
+        private Plan plan() {
+            // 1. Hash index lookup, the smallest bucket wins
+            Condition bestEquals = null;
+            int bestSize = Integer.MAX_VALUE;
+            for (Condition condition : conditions) {
+                HashIndex index = condition.value != null ? hashIndexes.get(condition.field) : null;
+                if (index != null && index.rows(condition.value).length < bestSize) {
+                    bestEquals = condition;
+                    bestSize = index.rows(condition.value).length;
+                }
+            }
+            if (bestEquals != null) {
+                return new Plan(this, AccessPath.HASH_LOOKUP, bestEquals);
+            }
+
+            // 2. Range scan, the narrowest range wins
+            Condition bestRange = null;
+            bestSize = Integer.MAX_VALUE;
+            for (Condition condition : conditions) {
+                SortedIndex index = condition.isIntRange() ? sortedIndexes.get(condition.field) : null;
+                if (index != null && index.count(condition.low, condition.high) < bestSize) {
+                    bestRange = condition;
+                    bestSize = index.count(condition.low, condition.high);
+                }
+            }
+            if (bestRange != null) {
+                return new Plan(this, AccessPath.RANGE_SCAN, bestRange);
+            }
+
+            // 3. Top-K walk over the index of the order field
+            if (orderField != null && limit != Integer.MAX_VALUE && sortedIndexes.containsKey(orderField)) {
+                return new Plan(this, AccessPath.INDEX_WALK, null);
+            }
+            return new Plan(this, AccessPath.FULL_SCAN, null);
+        }
+    }
+
+    private enum AccessPath {
+        HASH_LOOKUP, RANGE_SCAN, INDEX_WALK, FULL_SCAN
+    }
+
+    private final class Plan {
+        private final Query query;
+        private final AccessPath path;
+        private final Condition access;
+        private final List<Condition> residual = new ArrayList<>();
+
+        Plan(Query query, AccessPath path, Condition access) {
+            this.query = query;
+            this.path = path;
+            this.access = access;
+            for (Condition condition : query.conditions) {
+                if (condition != access) {
+                    residual.add(condition);
+                }
+            }
+        }
+
+        List<T> execute() {
+            List<T> result = new ArrayList<>();
+            if (query.limit == 0) {
+                return result;
+            }
+            switch (path) {
+                case HASH_LOOKUP -> collect(hashIndexes.get(access.field).rows(access.value), result);
+                case RANGE_SCAN -> {
+                    SortedIndex index = sortedIndexes.get(access.field);
+                    int from = index.lowerBound(access.low);
+                    int to = index.upperBound(access.high);
+                    if (from >= to) {
+                        // Nothing in range, or an inverted range such as [10, 5]
+                        return result;
+                    }
+                    boolean ordered = access.field.equals(query.orderField);
+                    if (ordered) {
+                        // rows come out of the index already sorted, stop as soon as the limit is reached
+                        walk(index, from, to, result);
+                        return result;
+                    }
+                    collect(Arrays.copyOfRange(index.rows(), from, to), result);
+                }
+                case INDEX_WALK -> {
+                    walk(sortedIndexes.get(query.orderField), 0, rows.size(), result);
+                    return result;
+                }
+                case FULL_SCAN -> {
+                    for (T element : rows) {
+                        if (matches(element)) {
+                            result.add(element);
+                        }
+                    }
+                }
+            }
+            if (query.orderField != null) {
+                Comparator<T> comparator = Comparator.comparingInt(intGetter(query.orderField));
+                result.sort(query.descending ? comparator.reversed() : comparator);
+            }
+            return result.size() > query.limit ? new ArrayList<>(result.subList(0, query.limit)) : result;
+        }
+
+        private void collect(int[] candidates, List<T> result) {
+            for (int row : candidates) {
+                T element = rows.get(row);
+                if (matches(element)) {
+                    result.add(element);
+                }
+            }
+        }
+
+        private void walk(SortedIndex index, int from, int to, List<T> result) {
+            if (!query.descending) {
+                walkRows(index.rows(), from, to, result);
+                return;
+            }
+            // Runs of equal keys from the highest key down, each run in row order: the index keeps equal keys
+            // in row order, and the stable sort of a full scan keeps them in that order too
+            int[] keys = index.keys();
+            for (int end = to; end > from && result.size() < query.limit; ) {
+                int start = Math.max(from, index.lowerBound(keys[end - 1]));
+                walkRows(index.rows(), start, end, result);
+                end = start;
+            }
+        }
+
+        private void walkRows(int[] indexRows, int from, int to, List<T> result) {
+            for (int i = from; i < to && result.size() < query.limit; i++) {
+                T element = rows.get(indexRows[i]);
+                if (matches(element)) {
+                    result.add(element);
+                }
+            }
+        }
+
+        private boolean matches(T element) {
+            for (Condition condition : residual) {
+                if (!condition.predicate.test(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            String plan = switch (path) {
+                case HASH_LOOKUP -> "HASH LOOKUP " + access.field + " = " + access.value;
+                case RANGE_SCAN -> "INDEX RANGE SCAN " + access.field + " [" + access.low + ", " + access.high + "]";
+                case INDEX_WALK -> "INDEX WALK " + query.orderField + (query.descending ? " DESC" : " ASC");
+                case FULL_SCAN -> "FULL SCAN";
+            };
+            if (!residual.isEmpty()) {
+                plan += " -> FILTER " + residual.size() + " condition(s)";
+            }
+            boolean sortedByAccess = path == AccessPath.INDEX_WALK
+                    || (path == AccessPath.RANGE_SCAN && access.field.equals(query.orderField));
+            if (query.orderField != null && !sortedByAccess) {
+                plan += " -> SORT " + query.orderField + (query.descending ? " DESC" : " ASC");
+            }
+            if (query.limit != Integer.MAX_VALUE) {
+                plan += " -> LIMIT " + query.limit;
+            }
+            return plan;
+        }
+    }
+
+    private final class Condition {
+        private final String field;
+        private final int low;
+        private final int high;
+        private final Object value;
+        private final Predicate<? super T> predicate;
+
+        Condition(String field, int low, int high, Object value, Predicate<? super T> predicate) {
+            this.field = field;
+            this.low = low;
+            this.high = high;
+            this.value = value;
+            this.predicate = predicate;
+        }
+
+        // A range on an int field, or an equality on one, whose low and high are both the value
+        boolean isIntRange() {
+            return field != null && (value == null || value instanceof Integer && intFields.containsKey(field));
+        }
+    }
+
+    // Row numbers ordered by the int key, with the keys in a parallel array for binary search
+    private final class SortedIndex {
+        private final ToIntFunction<? super T> getter;
+        private int[] keys = new int[0];
+        private int[] indexRows = new int[0];
+        private int builtAt = -1;
+
+        SortedIndex(ToIntFunction<? super T> getter) {
+            this.getter = getter;
+        }
+
+        int[] rows() {
+            refresh();
+            return indexRows;
+        }
+
+        int[] keys() {
+            refresh();
+            return keys;
+        }
+
+        int count(int low, int high) {
+            return Math.max(0, upperBound(high) - lowerBound(low));
+        }
+
+        // First position with key >= low
+        int lowerBound(int low) {
+            refresh();
+            int from = 0;
+            int to = keys.length;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (keys[mid] < low) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        // First position with key > high
+        int upperBound(int high) {
+            refresh();
+            int from = 0;
+            int to = keys.length;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (keys[mid] <= high) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        private void refresh() {
+            if (builtAt == modCount) {
+                return;
+            }
+            // key in the high half, row in the low half: sorting the longs sorts by key, then by row
+            long[] packed = new long[rows.size()];
+            for (int row = 0; row < packed.length; row++) {
+                packed[row] = ((long) getter.applyAsInt(rows.get(row)) << 32) | row;
+            }
+            Arrays.sort(packed);
+            keys = new int[packed.length];
+            indexRows = new int[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+                keys[i] = (int) (packed[i] >> 32);
+                indexRows[i] = (int) packed[i];
+            }
+            builtAt = modCount;
+        }
+    }
+
+    private final class HashIndex {
+        private final Function<? super T, ?> getter;
+        private Map<Object, int[]> buckets = new HashMap<>();
+        private int builtAt = -1;
+
+        HashIndex(Function<? super T, ?> getter) {
+            this.getter = getter;
+        }
+
+        int[] rows(Object value) {
+            refresh();
+            return buckets.getOrDefault(value, new int[0]);
+        }
+
+        private void refresh() {
+            if (builtAt == modCount) {
+                return;
+            }
+            Map<Object, List<Integer>> lists = new HashMap<>();
+            for (int row = 0; row < rows.size(); row++) {
+                lists.computeIfAbsent(getter.apply(rows.get(row)), key -> new ArrayList<>()).add(row);
+            }
+            buckets = new HashMap<>();
+            lists.forEach((key, list) -> buckets.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+            builtAt = modCount;
+        }
+    }
+}
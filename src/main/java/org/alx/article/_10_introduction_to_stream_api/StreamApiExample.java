@@ -107,14 +107,11 @@ public class StreamApiExample {
     public static void sortedExample() {
 
         // Filter persons with a score
-        // Sort by score in descending order
-        // Get the top 3 persons
+        // Keep the top 3 persons by score in a bounded heap instead of sorting the whole stream
 
         List<Person> filteredPersons = persons.stream()
                 .filter(person -> person.getScore() > 0)
-                .sorted(Comparator.comparingInt(Person::getScore).reversed())
-                .limit(3)
-                .collect(Collectors.toList());
+                .collect(TopKCollectors.greatest(3, Comparator.comparingInt(Person::getScore)));
 
         System.out.println(filteredPersons);
 
@@ -127,14 +124,11 @@ public class StreamApiExample {
     public static void parallelStreamExample() {
         // Use parallel stream
         // Filter persons with a score
-        // Sort by score in descending order
-        // Get the top 3 persons
+        // Keep the top 3 persons by score, the int score is compared without boxing
 
         List<Person> selectedPersons = persons.parallelStream()
                 .filter(person -> person.getScore() > 0)
-                .sorted(Comparator.comparingInt(Person::getScore).reversed())
-                .limit(3)
-                .collect(Collectors.toList());
+                .collect(TopKCollectors.greatestByInt(3, Person::getScore));
     }
 
 }
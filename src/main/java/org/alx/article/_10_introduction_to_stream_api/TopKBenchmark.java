@@ -0,0 +1,60 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Compares the sorted(...).limit(3) pipelines of StreamApiExample with TopKCollectors on 10M persons
+public class TopKBenchmark {
+    private static final int PERSONS = 10_000_000;
+    private static final int K = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<Person> persons = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            persons.add(new Person("Person" + i, random.nextInt(1_000_000)));
+        }
+        Comparator<Person> byScore = Comparator.comparingInt(Person::getScore);
+
+        measure("sequential sorted+limit", () -> persons.stream()
+                .filter(person -> person.getScore() > 0)
+                .sorted(byScore.reversed())
+                .limit(K)
+                .collect(Collectors.toList()));
+        measure("sequential greatest", () -> persons.stream()
+                .filter(person -> person.getScore() > 0)
+                .collect(TopKCollectors.greatest(K, byScore)));
+        measure("sequential greatestByInt", () -> persons.stream()
+                .filter(person -> person.getScore() > 0)
+                .collect(TopKCollectors.greatestByInt(K, Person::getScore)));
+
+        measure("parallel sorted+limit", () -> persons.parallelStream()
+                .filter(person -> person.getScore() > 0)
+                .sorted(byScore.reversed())
+                .limit(K)
+                .collect(Collectors.toList()));
+        measure("parallel greatest", () -> persons.parallelStream()
+                .filter(person -> person.getScore() > 0)
+                .collect(TopKCollectors.greatest(K, byScore)));
+        measure("parallel greatestByInt", () -> persons.parallelStream()
+                .filter(person -> person.getScore() > 0)
+                .collect(TopKCollectors.greatestByInt(K, Person::getScore)));
+    }
+
+    private static void measure(String name, Supplier<List<Person>> pipeline) {
+        long best = Long.MAX_VALUE;
+        List<Person> result = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            result = pipeline.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        String scores = result.stream().map(person -> String.valueOf(person.getScore())).collect(Collectors.joining(", "));
+        System.out.printf("%-28s best of %d: %6d ms  top scores: [%s]%n", name, ROUNDS, best / 1_000_000, scores);
+    }
+}
@@ -0,0 +1,439 @@
+package org.alx.article._10_introduction_to_stream_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+// Collectors that keep only the k greatest elements, a replacement for sorted(...).limit(k):
+// - every accumulator is a binary min-heap of at most k elements, the root is the first one to drop
+// - O(n log k) time and O(k) memory instead of O(n log n) and O(n)
+// - parallel combining merges the smaller heap into the bigger one, O(k log k) per merge
+// The result list is ordered from the greatest element down. Ties are broken by encounter order like
+// sorted(...).limit(k) does: every element carries its position, and when combining, the positions of the right
+// heap are shifted by the number of elements the left one saw, so an earlier element always wins a tie.
+public final class TopKCollectors {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private TopKCollectors() {
+    }
+
+    public static <T> Collector<T, ?, List<T>> greatest(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        return Collector.<T, ObjectHeap<T>, List<T>>of(
+                () -> new ObjectHeap<>(k, comparator),
+                ObjectHeap::offer,
+                ObjectHeap::merge,
+                ObjectHeap::toList);
+    }
+
+    public static <T> Collector<T, ?, List<T>> least(int k, Comparator<? super T> comparator) {
+        return greatest(k, comparator.reversed());
+    }
+
+    // The key is extracted once per element and kept in an int[] next to the element, it is never boxed
+    public static <T> Collector<T, ?, List<T>> greatestByInt(int k, ToIntFunction<? super T> key) {
+        checkK(k);
+        return Collector.<T, IntKeyHeap<T>, List<T>>of(
+                () -> new IntKeyHeap<>(k),
+                (heap, element) -> heap.offer(key.applyAsInt(element), element),
+                IntKeyHeap::merge,
+                IntKeyHeap::toList);
+    }
+
+    public static <T> Collector<T, ?, List<T>> greatestByLong(int k, ToLongFunction<? super T> key) {
+        checkK(k);
+        return Collector.<T, LongKeyHeap<T>, List<T>>of(
+                () -> new LongKeyHeap<>(k),
+                (heap, element) -> heap.offer(key.applyAsLong(element), element),
+                LongKeyHeap::merge,
+                LongKeyHeap::toList);
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+    }
+
+    private static int grow(int capacity, int k) {
+        return (int) Math.min(k, Math.max(INITIAL_CAPACITY, capacity * 2L));
+    }
+
+    private static final class ObjectHeap<T> {
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private Object[] elements;
+        // Encounter position of every element, the later of two equal elements ranks lower
+        private long[] positions;
+        private int size;
+        // Elements offered so far, the position of the next one
+        private long seen;
+
+        ObjectHeap(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            this.elements = new Object[Math.min(k, INITIAL_CAPACITY)];
+            this.positions = new long[elements.length];
+        }
+
+        void offer(T element) {
+            offer(element, seen++);
+        }
+
+        private void offer(T element, long position) {
+            if (size < k) {
+                if (size == elements.length) {
+                    elements = Arrays.copyOf(elements, grow(size, k));
+                    positions = Arrays.copyOf(positions, elements.length);
+                }
+                elements[size] = element;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (k > 0 && compare(element, position, get(0), positions[0]) > 0) {
+                elements[0] = element;
+                positions[0] = position;
+                siftDown(0);
+            }
+        }
+
+        // this holds the elements encountered before those of other
+        ObjectHeap<T> merge(ObjectHeap<T> other) {
+            long offset = seen;
+            if (size < other.size) {
+                for (int i = 0; i < other.size; i++) {
+                    other.positions[i] += offset;
+                }
+                for (int i = 0; i < size; i++) {
+                    other.offer(get(i), positions[i]);
+                }
+                other.seen += offset;
+                return other;
+            }
+            for (int i = 0; i < other.size; i++) {
+                offer(other.get(i), other.positions[i] + offset);
+            }
+            seen += other.seen;
+            return this;
+        }
+
+        List<T> toList() {
+            List<T> result = new ArrayList<>(size);
+            while (size > 0) {
+                result.add(get(0));
+                size--;
+                elements[0] = elements[size];
+                positions[0] = positions[size];
+                elements[size] = null;
+                siftDown(0);
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int index) {
+            return (T) elements[index];
+        }
+
+        private int compare(T a, long positionA, T b, long positionB) {
+            int result = comparator.compare(a, b);
+            return result != 0 ? result : Long.compare(positionB, positionA);
+        }
+
+        private int compare(int i, int j) {
+            return compare(get(i), positions[i], get(j), positions[j]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(index, parent) >= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && compare(left, smallest) < 0) {
+                    smallest = left;
+                }
+                if (right < size && compare(right, smallest) < 0) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Object tmp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = tmp;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+    }
+
+    private static final class IntKeyHeap<T> {
+        private final int k;
+        private int[] keys;
+        private Object[] elements;
+        // Encounter position of every element, the later of two equal keys ranks lower
+        private long[] positions;
+        private int size;
+        // Elements offered so far, the position of the next one
+        private long seen;
+
+        IntKeyHeap(int k) {
+            this.k = k;
+            this.keys = new int[Math.min(k, INITIAL_CAPACITY)];
+            this.elements = new Object[keys.length];
+            this.positions = new long[keys.length];
+        }
+
+        void offer(int key, Object element) {
+            offer(key, element, seen++);
+        }
+
+        private void offer(int key, Object element, long position) {
+            if (size < k) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, grow(size, k));
+                    elements = Arrays.copyOf(elements, keys.length);
+                    positions = Arrays.copyOf(positions, keys.length);
+                }
+                keys[size] = key;
+                elements[size] = element;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (k > 0 && (key > keys[0] || key == keys[0] && position < positions[0])) {
+                keys[0] = key;
+                elements[0] = element;
+                positions[0] = position;
+                siftDown(0);
+            }
+        }
+
+        // this holds the elements encountered before those of other
+        IntKeyHeap<T> merge(IntKeyHeap<T> other) {
+            long offset = seen;
+            if (size < other.size) {
+                for (int i = 0; i < other.size; i++) {
+                    other.positions[i] += offset;
+                }
+                for (int i = 0; i < size; i++) {
+                    other.offer(keys[i], elements[i], positions[i]);
+                }
+                other.seen += offset;
+                return other;
+            }
+            for (int i = 0; i < other.size; i++) {
+                offer(other.keys[i], other.elements[i], other.positions[i] + offset);
+            }
+            seen += other.seen;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            List<T> result = new ArrayList<>(size);
+            while (size > 0) {
+                result.add((T) elements[0]);
+                size--;
+                keys[0] = keys[size];
+                elements[0] = elements[size];
+                positions[0] = positions[size];
+                elements[size] = null;
+                siftDown(0);
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        // Whether i ranks below j: a smaller key, or the same key seen later
+        private boolean less(int i, int j) {
+            return keys[i] < keys[j] || keys[i] == keys[j] && positions[i] > positions[j];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!less(index, parent)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            Object element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+    }
+
+    private static final class LongKeyHeap<T> {
+        private final int k;
+        private long[] keys;
+        private Object[] elements;
+        // Encounter position of every element, the later of two equal keys ranks lower
+        private long[] positions;
+        private int size;
+        // Elements offered so far, the position of the next one
+        private long seen;
+
+        LongKeyHeap(int k) {
+            this.k = k;
+            this.keys = new long[Math.min(k, INITIAL_CAPACITY)];
+            this.elements = new Object[keys.length];
+            this.positions = new long[keys.length];
+        }
+
+        void offer(long key, Object element) {
+            offer(key, element, seen++);
+        }
+
+        private void offer(long key, Object element, long position) {
+            if (size < k) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, grow(size, k));
+                    elements = Arrays.copyOf(elements, keys.length);
+                    positions = Arrays.copyOf(positions, keys.length);
+                }
+                keys[size] = key;
+                elements[size] = element;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (k > 0 && (key > keys[0] || key == keys[0] && position < positions[0])) {
+                keys[0] = key;
+                elements[0] = element;
+                positions[0] = position;
+                siftDown(0);
+            }
+        }
+
+        // this holds the elements encountered before those of other
+        LongKeyHeap<T> merge(LongKeyHeap<T> other) {
+            long offset = seen;
+            if (size < other.size) {
+                for (int i = 0; i < other.size; i++) {
+                    other.positions[i] += offset;
+                }
+                for (int i = 0; i < size; i++) {
+                    other.offer(keys[i], elements[i], positions[i]);
+                }
+                other.seen += offset;
+                return other;
+            }
+            for (int i = 0; i < other.size; i++) {
+                offer(other.keys[i], other.elements[i], other.positions[i] + offset);
+            }
+            seen += other.seen;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            List<T> result = new ArrayList<>(size);
+            while (size > 0) {
+                result.add((T) elements[0]);
+                size--;
+                keys[0] = keys[size];
+                elements[0] = elements[size];
+                positions[0] = positions[size];
+                elements[size] = null;
+                siftDown(0);
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        // Whether i ranks below j: a smaller key, or the same key seen later
+        private boolean less(int i, int j) {
+            return keys[i] < keys[j] || keys[i] == keys[j] && positions[i] > positions[j];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!less(index, parent)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            Object element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+    }
+}
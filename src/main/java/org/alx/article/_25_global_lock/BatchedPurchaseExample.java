@@ -0,0 +1,197 @@
+package org.alx.article._25_global_lock;
+
+import org.h2.tools.Server;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
+import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Runs ProductService.buyProducts1 against an embedded H2 database reached over its TCP server,
+// so every statement is a real round trip, and compares it with the row-by-row version.
+public class BatchedPurchaseExample {
+    private static final int PRODUCTS = 1_000;
+    private static final int CART_SIZE = 10;
+    private static final int CARTS = 2_000;
+
+    @Configuration
+    @EnableTransactionManagement
+    static class ShopConfig {
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        LockRegistry lockRegistry() {
+            return new DefaultLockRegistry();
+        }
+
+        @Bean
+        StripedMultiLock productLocks(LockRegistry lockRegistry) {
+            return new StripedMultiLock(lockRegistry);
+        }
+
+        @Bean
+        ProductService productService() {
+            return new ProductService();
+        }
+
+        @Bean
+        CheckoutService checkoutService(ProductService productService) {
+            return new CheckoutService(productService);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:shop;DB_CLOSE_DELAY=-1", "sa", "", true);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(DataSource.class, () -> dataSource);
+            context.register(ShopConfig.class);
+            context.refresh();
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            ProductService productService = context.getBean(ProductService.class);
+            createSchema(jdbcTemplate);
+
+            verify(jdbcTemplate, productService);
+            benchmark(jdbcTemplate, productService, new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+        } finally {
+            dataSource.destroy();
+            server.stop();
+        }
+    }
+
+    static void createSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE Store (id VARCHAR(64) PRIMARY KEY, amount INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE Payment (payment BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "amount BIGINT NOT NULL, transaction VARCHAR(64) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE ProductOrder (payment BIGINT NOT NULL REFERENCES Payment (payment), "
+                + "product_id VARCHAR(64) NOT NULL REFERENCES Store (id))");
+    }
+
+    static void fillStore(JdbcTemplate jdbcTemplate, int products, int amount) {
+        jdbcTemplate.update("DELETE FROM ProductOrder");
+        jdbcTemplate.update("DELETE FROM Payment");
+        jdbcTemplate.update("DELETE FROM Store");
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{"product-" + i, amount});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO Store (id, amount) VALUES (?, ?)", rows);
+    }
+
+    private static void verify(JdbcTemplate jdbcTemplate, ProductService productService) {
+        fillStore(jdbcTemplate, 3, 2);
+
+        PurchaseResult bought = productService.buyProducts1(
+                List.of(new Product("product-0"), new Product("product-1"), new Product("product-1")),
+                new Payment(300, "tx-1"));
+        check(bought.purchased(), "cart with enough stock is bought");
+        check(amount(jdbcTemplate, "product-0") == 1 && amount(jdbcTemplate, "product-1") == 0,
+                "stock is taken once per item, duplicates included");
+        check(count(jdbcTemplate, "ProductOrder") == 3 && count(jdbcTemplate, "Payment") == 1,
+                "one payment and one order per item");
+
+        PurchaseResult rejected = productService.buyProducts1(
+                List.of(new Product("product-0"), new Product("product-1"), new Product("product-9")),
+                new Payment(300, "tx-2"));
+        check(!rejected.purchased() && rejected.outOfStock().equals(List.of("product-1", "product-9")),
+                "short and unknown products are reported: " + rejected.outOfStock());
+        check(amount(jdbcTemplate, "product-0") == 1 && count(jdbcTemplate, "Payment") == 1,
+                "a rejected cart changes nothing");
+        System.out.println("Batched purchase checks passed");
+    }
+
+    private static void benchmark(JdbcTemplate jdbcTemplate, ProductService productService,
+                                  TransactionTemplate transactionTemplate) {
+        List<List<Product>> carts = randomCarts();
+
+        for (int round = 0; round < 2; round++) {
+            fillStore(jdbcTemplate, PRODUCTS, CARTS * CART_SIZE);
+            long start = System.nanoTime();
+            for (int i = 0; i < carts.size(); i++) {
+                List<Product> cart = carts.get(i);
+                Payment payment = new Payment(cart.size() * 100L, "row-" + i);
+                transactionTemplate.executeWithoutResult(status -> buyRowByRow(jdbcTemplate, cart, payment));
+            }
+            double rowByRow = carts.size() / ((System.nanoTime() - start) / 1e9);
+
+            fillStore(jdbcTemplate, PRODUCTS, CARTS * CART_SIZE);
+            start = System.nanoTime();
+            for (int i = 0; i < carts.size(); i++) {
+                List<Product> cart = carts.get(i);
+                productService.buyProducts1(cart, new Payment(cart.size() * 100L, "batch-" + i));
+            }
+            double batched = carts.size() / ((System.nanoTime() - start) / 1e9);
+
+            System.out.printf("Round %d, %d carts of %d products: row-by-row %.0f carts/s, batched %.0f carts/s%n",
+                    round + 1, CARTS, CART_SIZE, rowByRow, batched);
+        }
+    }
+
+    // The original sketch: a check, an order insert and a store update per product, plus the payment
+    private static void buyRowByRow(JdbcTemplate jdbcTemplate, List<Product> products, Payment payment) {
+        for (Product product : products) {
+            List<Integer> available = jdbcTemplate.queryForList(
+                    "SELECT 1 FROM Store WHERE id = ? AND amount > 0", Integer.class, product.getId());
+            if (available.isEmpty()) {
+                throw new IllegalStateException("Out of stock: " + product.getId());
+            }
+        }
+        jdbcTemplate.update("INSERT INTO Payment (amount, transaction) VALUES (?, ?)",
+                payment.getAmount(), payment.getTransaction());
+        Long paymentId = jdbcTemplate.queryForObject("SELECT MAX(payment) FROM Payment", Long.class);
+        for (Product product : products) {
+            jdbcTemplate.update("INSERT INTO ProductOrder (payment, product_id) VALUES (?, ?)", paymentId, product.getId());
+            jdbcTemplate.update("UPDATE Store SET amount = amount - 1 WHERE id = ?", product.getId());
+        }
+    }
+
+    private static List<List<Product>> randomCarts() {
+        Random random = new Random(42);
+        List<List<Product>> carts = new ArrayList<>(CARTS);
+        for (int i = 0; i < CARTS; i++) {
+            List<Product> cart = new ArrayList<>(CART_SIZE);
+            for (int j = 0; j < CART_SIZE; j++) {
+                cart.add(new Product("product-" + random.nextInt(PRODUCTS)));
+            }
+            carts.add(cart);
+        }
+        return carts;
+    }
+
+    static int amount(JdbcTemplate jdbcTemplate, String productId) {
+        return jdbcTemplate.queryForObject("SELECT amount FROM Store WHERE id = ?", Integer.class, productId);
+    }
+
+    static int count(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            throw new IllegalStateException("Check failed: " + description);
+        }
+    }
+}
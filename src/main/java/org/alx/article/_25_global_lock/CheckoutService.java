@@ -0,0 +1,82 @@
+package org.alx.article._25_global_lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Entry point for buying a cart, the strategy decides whether the product locks are taken.
+// In OPTIMISTIC mode each attempt is a separate transaction (a conflict rolls the previous one back),
+// so the retry loop has to live outside ProductService's @Transactional methods. Conflicts are whatever the
+// database reports as transient: depending on the driver a lock wait timeout is a ConcurrencyFailureException
+// or a QueryTimeoutException.
+@Service
+public class CheckoutService {
+    private static final int MAX_OPTIMISTIC_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MICROS = 500;
+    private static final long MAX_BACKOFF_MICROS = 20_000;
+
+    private final ProductService productService;
+    private volatile PurchaseStrategy strategy = PurchaseStrategy.OPTIMISTIC;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    @Autowired
+    public CheckoutService(ProductService productService) {
+        this.productService = productService;
+    }
+
+    public PurchaseStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(PurchaseStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public PurchaseResult buy(List<Product> products, Payment userPayment) throws InterruptedException {
+        try {
+            if (strategy == PurchaseStrategy.OPTIMISTIC && buyOptimistic(products, userPayment)) {
+                return PurchaseResult.success();
+            }
+            productService.buyProducts(products, userPayment);
+            return PurchaseResult.success();
+        } catch (OutOfStockException e) {
+            return PurchaseResult.outOfStock(List.of(e.getProductId()));
+        }
+    }
+
+    // false when every attempt ran into a conflict and the cart has to go through the lock path
+    private boolean buyOptimistic(List<Product> products, Payment userPayment) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MICROS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                productService.buyProductsOptimistic(products, userPayment);
+                return true;
+            } catch (TransientDataAccessException e) {
+                // Deadlock, lock wait timeout or serialization failure, the attempt was rolled back
+                conflicts.increment();
+                if (attempt == MAX_OPTIMISTIC_ATTEMPTS) {
+                    fallbacks.increment();
+                    return false;
+                }
+                // Full jitter, so carts that collided once do not collide again on the retry
+                TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+                backoff = Math.min(MAX_BACKOFF_MICROS, backoff * 2);
+            }
+        }
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+}
@@ -0,0 +1,255 @@
+package org.alx.article._25_global_lock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ErrorHandler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// In-process stock for flash sales, the database is no longer on the path of a purchase:
+// - on start the Store table is loaded into counters, products are spread over shards by index
+// - every counter sits on its own cache lines, so threads buying different products never share a line
+// - reserve/commit/release are CAS loops on those counters, without locks
+// - committed sales are written behind: a background flush sends the accumulated per-product deltas
+//   to Store as one JDBC batch in one transaction, a failed flush rolls back and keeps the deltas for the next one
+// Store.amount only ever reflects committed sales, open reservations are lost on a restart and simply
+// become available again.
+public class InventoryEngine implements AutoCloseable {
+    // 16 longs = 128 bytes between two counters: one cache line plus the adjacent line the CPU may prefetch
+    private static final int STRIDE = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration flushInterval;
+    private final Shard[] shards;
+    private final int shardMask;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> productIds = new ArrayList<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "inventory-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+    private volatile boolean started;
+
+    private static final class Shard {
+        final AtomicLongArray available;
+        // Committed but not yet flushed, per product
+        final AtomicLongArray pending;
+        final AtomicIntegerArray dirty;
+        final ConcurrentLinkedQueue<Integer> dirtySlots = new ConcurrentLinkedQueue<>();
+
+        Shard(int slots) {
+            available = new AtomicLongArray(slots * STRIDE);
+            pending = new AtomicLongArray(slots * STRIDE);
+            dirty = new AtomicIntegerArray(slots);
+        }
+    }
+
+    public final class Reservation {
+        private static final int RESERVED = 0;
+        private static final int COMMITTED = 1;
+        private static final int RELEASED = 2;
+
+        private final int index;
+        private final int quantity;
+        private final AtomicInteger state = new AtomicInteger(RESERVED);
+
+        private Reservation(int index, int quantity) {
+            this.index = index;
+            this.quantity = quantity;
+        }
+
+        public String getProductId() {
+            return productIds.get(index);
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        // The sale is final, it will reach the Store table with the next flush
+        public void commit() {
+            if (!state.compareAndSet(RESERVED, COMMITTED)) {
+                throw new IllegalStateException("Reservation is already " + (state.get() == COMMITTED ? "committed" : "released"));
+            }
+            Shard shard = shardOf(index);
+            int slot = slotOf(index);
+            shard.pending.addAndGet(slot * STRIDE, quantity);
+            if (shard.dirty.compareAndSet(slot, 0, 1)) {
+                shard.dirtySlots.offer(slot);
+            }
+        }
+
+        // Returns the items to the stock, releasing twice or after a commit does nothing
+        public void release() {
+            if (state.compareAndSet(RESERVED, RELEASED)) {
+                shardOf(index).available.addAndGet(slotOf(index) * STRIDE, quantity);
+            }
+        }
+    }
+
+    public InventoryEngine(JdbcTemplate jdbcTemplate, int shardCount, Duration flushInterval) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount must be a power of two: " + shardCount);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.flushInterval = flushInterval;
+        this.shards = new Shard[shardCount];
+        this.shardMask = shardCount - 1;
+    }
+
+    public InventoryEngine(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4), Duration.ofMillis(100));
+    }
+
+    // Gets the failures of background flushes, which are retried with the next one; logs them by default
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    // Loads the stock from the Store table and starts the write-behind flushes
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("InventoryEngine is already started");
+        }
+        List<Long> amounts = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, amount FROM Store ORDER BY id", rs -> {
+            indexes.put(rs.getString(1), productIds.size());
+            productIds.add(rs.getString(1));
+            amounts.add(rs.getLong(2));
+        });
+        int slotsPerShard = (productIds.size() + shardMask) / shards.length;
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(Math.max(1, slotsPerShard));
+        }
+        for (int index = 0; index < amounts.size(); index++) {
+            shardOf(index).available.set(slotOf(index) * STRIDE, amounts.get(index));
+        }
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        started = true;
+    }
+
+    // Takes quantity items of the product, or returns null when there are not enough
+    public Reservation reserve(String productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive: " + quantity);
+        }
+        checkStarted();
+        Integer index = indexes.get(productId);
+        if (index == null) {
+            return null;
+        }
+        AtomicLongArray available = shardOf(index).available;
+        int offset = slotOf(index) * STRIDE;
+        long current = available.get(offset);
+        while (current >= quantity) {
+            long witness = available.compareAndExchange(offset, current, current - quantity);
+            if (witness == current) {
+                return new Reservation(index, quantity);
+            }
+            current = witness;
+        }
+        return null;
+    }
+
+    public long available(String productId) {
+        checkStarted();
+        Integer index = indexes.get(productId);
+        return index == null ? 0 : shardOf(index).available.get(slotOf(index) * STRIDE);
+    }
+
+    // Sends all committed, not yet flushed sales to the Store table; returns the number of updated products
+    public synchronized int flush() {
+        checkStarted();
+        List<Object[]> batch = new ArrayList<>();
+        List<long[]> flushed = new ArrayList<>();
+        for (int s = 0; s < shards.length; s++) {
+            Shard shard = shards[s];
+            Integer slot;
+            while ((slot = shard.dirtySlots.poll()) != null) {
+                // Clear the flag before taking the delta, a commit racing with us marks the slot dirty again
+                shard.dirty.set(slot, 0);
+                long delta = shard.pending.getAndSet(slot * STRIDE, 0);
+                if (delta != 0) {
+                    batch.add(new Object[]{delta, productIds.get(slot * shards.length + s)});
+                    flushed.add(new long[]{s, slot, delta});
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            // All or nothing: with auto-commit a failing batch would leave some rows applied, and putting
+            // their deltas back would take them from Store twice
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("UPDATE Store SET amount = amount - ? WHERE id = ?", batch));
+        } catch (RuntimeException e) {
+            // Rolled back, put the deltas back and the next flush retries them
+            for (long[] entry : flushed) {
+                Shard shard = shards[(int) entry[0]];
+                int slot = (int) entry[1];
+                shard.pending.addAndGet(slot * STRIDE, entry[2]);
+                if (shard.dirty.compareAndSet(slot, 0, 1)) {
+                    shard.dirtySlots.offer(slot);
+                }
+            }
+            throw e;
+        }
+        return batch.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            errorHandler.handleError(e);
+        }
+    }
+
+    // Stops the background flushes and writes what is left
+    @Override
+    public void close() {
+        flusher.shutdown();
+        if (!started) {
+            return;
+        }
+        try {
+            flusher.awaitTermination(flushInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void checkStarted() {
+        if (!started) {
+            throw new IllegalStateException("InventoryEngine is not started, call start() first");
+        }
+    }
+
+    private Shard shardOf(int index) {
+        return shards[index & shardMask];
+    }
+
+    private int slotOf(int index) {
+        return index / shards.length;
+    }
+}
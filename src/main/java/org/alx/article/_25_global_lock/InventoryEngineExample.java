@@ -0,0 +1,111 @@
+package org.alx.article._25_global_lock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class InventoryEngineExample {
+    private static final int PRODUCTS = 100;
+    private static final int STOCK = 10_000_000;
+    private static final int THREADS = 8;
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    public static void main(String[] args) throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1", "sa", ""));
+        BatchedPurchaseExample.createSchema(jdbcTemplate);
+
+        sellOut(jdbcTemplate);
+        flashSale(jdbcTemplate);
+    }
+
+    // 16 threads fight for 1000 items: exactly 1000 are sold and the table agrees after the flush
+    private static void sellOut(JdbcTemplate jdbcTemplate) throws Exception {
+        BatchedPurchaseExample.fillStore(jdbcTemplate, 1, 1_000);
+        LongAdder sold = new LongAdder();
+        try (InventoryEngine engine = new InventoryEngine(jdbcTemplate)) {
+            engine.start();
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            for (int i = 0; i < 16; i++) {
+                executor.execute(() -> {
+                    InventoryEngine.Reservation reservation;
+                    while ((reservation = engine.reserve("product-0", 1)) != null) {
+                        reservation.commit();
+                        sold.increment();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        int left = BatchedPurchaseExample.amount(jdbcTemplate, "product-0");
+        if (sold.sum() != 1_000 || left != 0) {
+            throw new IllegalStateException("Sold " + sold.sum() + ", left in Store " + left);
+        }
+        System.out.println("Sell-out: sold " + sold.sum() + ", left in Store " + left);
+    }
+
+    // Random reservations on 100 products, 90% committed and 10% released, flushed in the background
+    private static void flashSale(JdbcTemplate jdbcTemplate) throws Exception {
+        BatchedPurchaseExample.fillStore(jdbcTemplate, PRODUCTS, STOCK);
+        long committed = 0;
+        long released = 0;
+        try (InventoryEngine engine = new InventoryEngine(jdbcTemplate, 16, Duration.ofMillis(50))) {
+            engine.start();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long end = System.nanoTime() + RUN_NANOS;
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] counts = new long[2];
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        InventoryEngine.Reservation reservation = engine.reserve("product-" + random.nextInt(PRODUCTS), 1);
+                        if (random.nextInt(10) == 0) {
+                            reservation.release();
+                            counts[1]++;
+                        } else {
+                            reservation.commit();
+                            counts[0]++;
+                        }
+                    }
+                    return counts;
+                }));
+            }
+            for (Future<long[]> future : futures) {
+                committed += future.get()[0];
+                released += future.get()[1];
+            }
+            executor.shutdown();
+        }
+        System.out.printf("Flash sale: %.0f reservations/s (%d committed, %d released) on %d threads%n",
+                (committed + released) / (RUN_NANOS / 1e9), committed, released, THREADS);
+
+        long left = jdbcTemplate.queryForObject("SELECT SUM(amount) FROM Store", Long.class);
+        if (left != (long) PRODUCTS * STOCK - committed) {
+            throw new IllegalStateException("Store has " + left + " items, expected " + ((long) PRODUCTS * STOCK - committed));
+        }
+
+        // A restarted node picks the stock up from the table
+        try (InventoryEngine restarted = new InventoryEngine(jdbcTemplate)) {
+            restarted.start();
+            long reloaded = 0;
+            for (int i = 0; i < PRODUCTS; i++) {
+                reloaded += restarted.available("product-" + i);
+            }
+            if (reloaded != left) {
+                throw new IllegalStateException("Reloaded " + reloaded + " items, Store has " + left);
+            }
+            System.out.println("Store and reloaded engine agree on " + reloaded + " items");
+        }
+    }
+}
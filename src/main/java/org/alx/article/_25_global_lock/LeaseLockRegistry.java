@@ -0,0 +1,611 @@
+package org.alx.article._25_global_lock;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ErrorHandler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// LockRegistry over a lease table shared by all nodes:
+// - a lock is a row owned by one registry until expires_at, granting it increments the row's token,
+//   which is handed out as a fencing token (a write carrying an older token comes from a stale owner)
+// - threads of one node queue on a local ReentrantLock first; the lease is kept after unlock, so the next
+//   lock of the same key on this node needs no statement at all while the lease is valid
+// - lockAll takes any number of keys with one conditional UPDATE, all or nothing
+// - a background task extends the leases of this node and gives back the ones idle for longer than idleRelease;
+//   until then another node waiting for the key has to wait, so idleRelease trades handover latency on keys
+//   shared between nodes for statements saved on keys used by one node
+// - a key in constant use is never idle, so a lease is held for at most maxLease in a row: after that the next
+//   lock on this node gives the lease back and waits a moment before competing for it again, so other nodes
+//   waiting for the key get their turn
+// - a lock without a lease that stays unused for idleRelease is evicted, so keys used once do not pile up;
+//   an evicted LeaseLock still works, it forwards to the lock obtain() returns for its key from then on
+// expires_at is compared with this node's clock, so clock skew between nodes must stay well below the ttl;
+// the fencing token is what protects the data when it does not.
+public final class LeaseLockRegistry implements LockRegistry, AutoCloseable {
+    public static final String CREATE_TABLE_SQL = "CREATE TABLE LeaseLock (lock_key VARCHAR(255) PRIMARY KEY, "
+            + "owner VARCHAR(36), expires_at BIGINT NOT NULL, token BIGINT NOT NULL)";
+
+    private static final int MAX_IN_LIST = 500;
+    private static final long RETRY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    // Two retry intervals, so a node waiting for a handed back lease tries at least once meanwhile
+    private static final long HANDOVER_MILLIS = TimeUnit.NANOSECONDS.toMillis(2 * RETRY_INTERVAL_NANOS);
+
+    private final String owner = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+    private final long idleReleaseMillis;
+    private final long maxLeaseMillis;
+    private final Map<String, LeaseLock> locks = new ConcurrentHashMap<>();
+    private final Set<String> knownRows = ConcurrentHashMap.newKeySet();
+    private final LongAdder statements = new LongAdder();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+
+    public LeaseLockRegistry(DataSource dataSource, Duration ttl, Duration idleRelease, Duration maxLease) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.ttlMillis = ttl.toMillis();
+        this.idleReleaseMillis = idleRelease.toMillis();
+        this.maxLeaseMillis = maxLease.toMillis();
+        // Often enough to hand idle leases over to other nodes quickly, leases themselves are only extended
+        // once a third of the ttl has passed
+        long periodMillis = Math.max(1, Math.min(ttlMillis / 3, idleReleaseMillis / 2));
+        renewer.scheduleWithFixedDelay(this::renewQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public LeaseLockRegistry(DataSource dataSource, Duration ttl, Duration idleRelease) {
+        this(dataSource, ttl, idleRelease, ttl);
+    }
+
+    public LeaseLockRegistry(DataSource dataSource) {
+        this(dataSource, Duration.ofSeconds(30), Duration.ofMillis(200));
+    }
+
+    // Gets the failures of background renewals, which are retried with the next one; logs them by default
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public final class LeaseLock implements Lock {
+        private final String key;
+        private final ReentrantLock local = new ReentrantLock();
+        private volatile long expiresAt;
+        private volatile long token;
+        private volatile long lastUsed;
+        // When this node got the lease after not having it, renewals do not change it
+        private volatile long grantedAt;
+        // Until then this node does not compete for the lease it just handed back
+        private volatile long yieldedUntil;
+        // Token of a lease another node took over; a lease granted since has a higher token, so a renewer
+        // finding out late about an old lease can not mark a fresh one as lost
+        private volatile long lostToken = -1;
+        // Set by the renewer with the local lock held, the lock is no longer in locks
+        private volatile boolean evicted;
+
+        private LeaseLock(String key) {
+            this.key = key;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        // Token of the current lease, only meaningful while the lock is held
+        public long fencingToken() {
+            return evicted ? obtain(key).fencingToken() : token;
+        }
+
+        // Like ReentrantLock.lock(), an interrupt does not stop the wait: the flag is cleared so the retries
+        // keep sleeping between statements, and set again once the lock is held
+        @Override
+        public void lock() {
+            local.lock();
+            if (letGoIfEvicted()) {
+                obtain(key).lock();
+                return;
+            }
+            boolean interrupted = false;
+            try {
+                while (!acquireLease()) {
+                    LockSupport.parkNanos(RETRY_INTERVAL_NANOS);
+                    interrupted |= Thread.interrupted();
+                }
+            } catch (RuntimeException e) {
+                local.unlock();
+                throw e;
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            local.lockInterruptibly();
+            if (letGoIfEvicted()) {
+                obtain(key).lockInterruptibly();
+                return;
+            }
+            try {
+                while (!acquireLease()) {
+                    TimeUnit.NANOSECONDS.sleep(RETRY_INTERVAL_NANOS);
+                }
+            } catch (InterruptedException | RuntimeException e) {
+                local.unlock();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!local.tryLock()) {
+                return false;
+            }
+            if (letGoIfEvicted()) {
+                return obtain(key).tryLock();
+            }
+            try {
+                if (acquireLease()) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                local.unlock();
+                throw e;
+            }
+            local.unlock();
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!local.tryLock(time, unit)) {
+                return false;
+            }
+            if (letGoIfEvicted()) {
+                return obtain(key).tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            try {
+                while (!acquireLease()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        local.unlock();
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.sleep(Math.min(remaining, RETRY_INTERVAL_NANOS));
+                }
+                return true;
+            } catch (InterruptedException | RuntimeException e) {
+                local.unlock();
+                throw e;
+            }
+        }
+
+        // The lease stays with this node after the last unlock, the renewer gives it back once it is idle
+        @Override
+        public void unlock() {
+            if (evicted) {
+                // Locked through forwarding, and the lock that is held can not be evicted meanwhile
+                obtain(key).unlock();
+                return;
+            }
+            boolean leaseLost = local.getHoldCount() == 1 && isLost();
+            lastUsed = System.currentTimeMillis();
+            local.unlock();
+            if (leaseLost) {
+                throw new ConcurrentModificationException("Lease on " + key + " expired while the lock was held, "
+                        + "the data protected by it may have been modified by another node");
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by lease locks");
+        }
+
+        // Called right after taking the local lock: an evicted lock gives it back, the caller retries on the live one
+        private boolean letGoIfEvicted() {
+            if (!evicted) {
+                return false;
+            }
+            local.unlock();
+            return true;
+        }
+
+        // Called with the local lock held
+        private boolean acquireLease() {
+            if (local.getHoldCount() > 1 || hasValidLease(System.currentTimeMillis())) {
+                return true;
+            }
+            return acquire(List.of(this));
+        }
+
+        // Valid for at least another third of the ttl, the renewer runs well before that, and not held too long
+        private boolean hasValidLease(long now) {
+            return !isLost() && expiresAt - now > ttlMillis / 3 && !overLeased(now);
+        }
+
+        private boolean isLost() {
+            return lostToken == token;
+        }
+
+        private boolean overLeased(long now) {
+            return expiresAt != 0 && now - grantedAt >= maxLeaseMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "LeaseLock[" + key + ", token " + token + "]";
+        }
+    }
+
+    // Locks taken together by lockAll, closing unlocks them in reverse order
+    public static final class Leases implements AutoCloseable {
+        private final List<LeaseLock> locks;
+
+        private Leases(List<LeaseLock> locks) {
+            this.locks = locks;
+        }
+
+        public long fencingToken(String key) {
+            for (LeaseLock lock : locks) {
+                if (lock.key.equals(key)) {
+                    return lock.token;
+                }
+            }
+            throw new IllegalArgumentException("Key " + key + " is not part of these leases");
+        }
+
+        @Override
+        public void close() {
+            unlockAll(locks);
+        }
+    }
+
+    @Override
+    public LeaseLock obtain(Object lockKey) {
+        String key = lockKey.toString();
+        return locks.computeIfAbsent(key, LeaseLock::new);
+    }
+
+    // Locks all keys or none: local locks in key order, then one statement for every key without a valid lease
+    public Leases lockAll(Collection<?> keys, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Set<String> sorted = new TreeSet<>();
+        for (Object key : keys) {
+            sorted.add(key.toString());
+        }
+        List<LeaseLock> held = new ArrayList<>(sorted.size());
+        try {
+            for (String key : sorted) {
+                LeaseLock lock;
+                do {
+                    lock = obtain(key);
+                    if (!lock.local.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        throw new CannotAcquireLockException("Timed out after " + timeout + " waiting for " + key);
+                    }
+                } while (lock.letGoIfEvicted());
+                held.add(lock);
+            }
+            while (true) {
+                long now = System.currentTimeMillis();
+                List<LeaseLock> missing = new ArrayList<>();
+                for (LeaseLock lock : held) {
+                    if (lock.local.getHoldCount() == 1 && !lock.hasValidLease(now)) {
+                        missing.add(lock);
+                    }
+                }
+                if (missing.isEmpty() || acquire(missing)) {
+                    return new Leases(held);
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new CannotAcquireLockException("Timed out after " + timeout + " waiting for " + keys.size() + " leases");
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, RETRY_INTERVAL_NANOS));
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            unlockAll(held);
+            throw e;
+        }
+    }
+
+    // Number of statements sent to the database, to see the fast path at work
+    public long statementCount() {
+        return statements.sum();
+    }
+
+    // One transaction: take every lease that is free, expired or already ours; roll back unless all were taken.
+    // Leases held for maxLease are handed back first, and not competed for again until the handover is over.
+    private boolean acquire(List<LeaseLock> batch) {
+        long now = System.currentTimeMillis();
+        List<LeaseLock> overLeased = new ArrayList<>();
+        for (LeaseLock lock : batch) {
+            if (!lock.isLost() && lock.overLeased(now)) {
+                overLeased.add(lock);
+            }
+        }
+        handOver(overLeased, now);
+        for (LeaseLock lock : batch) {
+            if (now < lock.yieldedUntil) {
+                return false;
+            }
+        }
+
+        List<String> keys = new ArrayList<>(batch.size());
+        for (LeaseLock lock : batch) {
+            keys.add(lock.key);
+        }
+        ensureRows(keys);
+        long expiresAt = now + ttlMillis;
+        Map<String, Long> tokens = transactionTemplate.execute(status -> {
+            Map<String, Long> result = new HashMap<>();
+            for (List<String> chunk : chunks(keys)) {
+                List<Object> args = new ArrayList<>(chunk.size() + 4);
+                args.add(owner);
+                args.add(expiresAt);
+                args.addAll(chunk);
+                args.add(owner);
+                args.add(now);
+                statements.increment();
+                int updated = jdbcTemplate.update("UPDATE LeaseLock SET owner = ?, expires_at = ?, token = token + 1 "
+                        + "WHERE lock_key IN (" + placeholders(chunk.size()) + ") "
+                        + "AND (owner IS NULL OR owner = ? OR expires_at < ?)", args.toArray());
+                if (updated != chunk.size()) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                List<Object> selectArgs = new ArrayList<>(chunk.size() + 1);
+                selectArgs.add(owner);
+                selectArgs.addAll(chunk);
+                statements.increment();
+                jdbcTemplate.query("SELECT lock_key, token FROM LeaseLock WHERE owner = ? AND lock_key IN ("
+                        + placeholders(chunk.size()) + ")", rs -> {
+                    result.put(rs.getString(1), rs.getLong(2));
+                }, selectArgs.toArray());
+            }
+            return result;
+        });
+        if (tokens == null) {
+            return false;
+        }
+        for (LeaseLock lock : batch) {
+            if (lock.expiresAt == 0 || lock.isLost()) {
+                lock.grantedAt = now;
+            }
+            lock.token = tokens.get(lock.key);
+            lock.expiresAt = expiresAt;
+        }
+        return true;
+    }
+
+    // Gives leases held for maxLease back, other nodes get HANDOVER_MILLIS to take them
+    private void handOver(List<LeaseLock> overLeased, long now) {
+        if (overLeased.isEmpty()) {
+            return;
+        }
+        releaseRows(overLeased);
+        for (LeaseLock lock : overLeased) {
+            lock.yieldedUntil = now + HANDOVER_MILLIS;
+        }
+    }
+
+    private void releaseRows(List<LeaseLock> leases) {
+        for (List<LeaseLock> chunk : chunks(leases)) {
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(owner);
+            for (LeaseLock lock : chunk) {
+                args.add(lock.key);
+            }
+            statements.increment();
+            jdbcTemplate.update("UPDATE LeaseLock SET owner = NULL, expires_at = 0 WHERE owner = ? AND lock_key IN ("
+                    + placeholders(chunk.size()) + ")", args.toArray());
+            for (LeaseLock lock : chunk) {
+                lock.expiresAt = 0;
+            }
+        }
+    }
+
+    // Lease rows are created once per key and reused afterwards
+    private void ensureRows(List<String> keys) {
+        List<String> unknown = new ArrayList<>();
+        for (String key : keys) {
+            if (!knownRows.contains(key)) {
+                unknown.add(key);
+            }
+        }
+        for (List<String> chunk : chunks(unknown)) {
+            String values = String.join(", ", Collections.nCopies(chunk.size(), "(CAST(? AS VARCHAR(255)))"));
+            String mergeSql = "MERGE INTO LeaseLock l USING (VALUES " + values + ") AS k (lock_key) "
+                    + "ON l.lock_key = k.lock_key "
+                    + "WHEN NOT MATCHED THEN INSERT (lock_key, owner, expires_at, token) VALUES (k.lock_key, NULL, 0, 0)";
+            try {
+                statements.increment();
+                jdbcTemplate.update(mergeSql, chunk.toArray());
+            } catch (DuplicateKeyException e) {
+                // Another node inserted one of the rows at the same time, now they all exist
+                statements.increment();
+                jdbcTemplate.update(mergeSql, chunk.toArray());
+            }
+            knownRows.addAll(chunk);
+        }
+    }
+
+    private void renewQuietly() {
+        try {
+            renew();
+        } catch (RuntimeException e) {
+            errorHandler.handleError(e);
+        }
+    }
+
+    // Extends every lease of this node in one statement, and gives back the ones not used for idleRelease
+    // or held for maxLease; leases held for maxLease and still locked are extended, the next lock hands them over.
+    // Locks without a lease that were not used for idleRelease are evicted.
+    void renew() {
+        long now = System.currentTimeMillis();
+        List<Renewal> toRenew = new ArrayList<>();
+        List<LeaseLock> toRelease = new ArrayList<>();
+        List<LeaseLock> overLeased = new ArrayList<>();
+        for (LeaseLock lock : locks.values()) {
+            boolean idle = now - lock.lastUsed > idleReleaseMillis;
+            if (lock.expiresAt == 0 || lock.isLost()) {
+                if (idle && lock.local.tryLock()) {
+                    evict(lock);
+                }
+                continue;
+            }
+            // Holding the local lock keeps threads of this node away from a lease being given back
+            if ((idle || lock.overLeased(now)) && lock.local.tryLock()) {
+                (idle ? toRelease : overLeased).add(lock);
+            } else if (lock.expiresAt - now < ttlMillis * 2 / 3) {
+                toRenew.add(new Renewal(lock, lock.token));
+            }
+        }
+
+        try {
+            releaseRows(toRelease);
+            handOver(overLeased, now);
+        } finally {
+            toRelease.forEach(lock -> lock.local.unlock());
+            overLeased.forEach(lock -> lock.local.unlock());
+        }
+
+        long expiresAt = now + ttlMillis;
+        for (List<Renewal> chunk : chunks(toRenew)) {
+            List<Object> args = new ArrayList<>(chunk.size() + 2);
+            args.add(expiresAt);
+            args.add(owner);
+            for (Renewal renewal : chunk) {
+                args.add(renewal.lock().key);
+            }
+            statements.increment();
+            int updated = jdbcTemplate.update("UPDATE LeaseLock SET expires_at = ? WHERE owner = ? AND lock_key IN ("
+                    + placeholders(chunk.size()) + ")", args.toArray());
+            if (updated == chunk.size()) {
+                for (Renewal renewal : chunk) {
+                    renewal.lock().expiresAt = expiresAt;
+                }
+                continue;
+            }
+            // Some leases were taken over by another node after they had expired
+            Set<String> stillOwned = new TreeSet<>();
+            statements.increment();
+            jdbcTemplate.query("SELECT lock_key FROM LeaseLock WHERE owner = ? AND lock_key IN ("
+                    + placeholders(chunk.size()) + ")", rs -> {
+                stillOwned.add(rs.getString(1));
+            }, args.subList(1, args.size()).toArray());
+            for (Renewal renewal : chunk) {
+                if (stillOwned.contains(renewal.lock().key)) {
+                    renewal.lock().expiresAt = expiresAt;
+                } else {
+                    // Only the lease seen when the renewal started is lost; if a thread of this node got a new
+                    // lease meanwhile, it has a higher token and stays valid
+                    renewal.lock().lostToken = renewal.token();
+                }
+            }
+        }
+    }
+
+    private record Renewal(LeaseLock lock, long token) {
+    }
+
+    // Called with the local lock held by the renewer, so nobody holds it or waits for a lease through it
+    private void evict(LeaseLock lock) {
+        try {
+            lock.evicted = true;
+            locks.remove(lock.key, lock);
+            knownRows.remove(lock.key);
+        } finally {
+            lock.local.unlock();
+        }
+    }
+
+    // Stops renewing and gives back every lease not in use; leases still locked simply expire
+    @Override
+    public void close() {
+        renewer.shutdownNow();
+        List<LeaseLock> idle = new ArrayList<>();
+        for (LeaseLock lock : locks.values()) {
+            if (lock.expiresAt != 0 && lock.local.tryLock()) {
+                idle.add(lock);
+            }
+        }
+        try {
+            releaseRows(idle);
+        } finally {
+            for (LeaseLock lock : idle) {
+                lock.expiresAt = 0;
+                lock.local.unlock();
+            }
+        }
+    }
+
+    // Stops renewing without giving anything back, as if the node had crashed
+    void abandon() {
+        renewer.shutdownNow();
+    }
+
+    private static void unlockAll(List<LeaseLock> held) {
+        RuntimeException failure = null;
+        for (int i = held.size() - 1; i >= 0; i--) {
+            try {
+                held.get(i).unlock();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static <T> List<List<T>> chunks(List<T> list) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += MAX_IN_LIST) {
+            chunks.add(list.subList(from, Math.min(list.size(), from + MAX_IN_LIST)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,181 @@
+package org.alx.article._25_global_lock;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+// Several LeaseLockRegistry instances, standing in for several nodes, sharing one embedded database
+public class LeaseLockRegistryExample {
+    private static final int NODES = 3;
+    private static final int THREADS_PER_NODE = 3;
+    private static final int INCREMENTS = 200;
+
+    private static long counter;
+
+    public static void main(String[] args) throws Exception {
+        JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:leases;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setMaxConnections(32);
+        new JdbcTemplate(dataSource).execute(LeaseLockRegistry.CREATE_TABLE_SQL);
+
+        List<LeaseLockRegistry> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new LeaseLockRegistry(dataSource, Duration.ofSeconds(2), Duration.ofMillis(20)));
+        }
+        try {
+            mutualExclusion(nodes);
+            fastPath(nodes.get(0));
+            lockAll(nodes.get(1), nodes.get(2));
+            crashedOwner(dataSource, nodes.get(0));
+            busyKey(dataSource);
+        } finally {
+            nodes.forEach(LeaseLockRegistry::close);
+            dataSource.dispose();
+        }
+    }
+
+    // Threads on all nodes increment an unsynchronized counter under the same lock; tokens never go backwards
+    private static void mutualExclusion(List<LeaseLockRegistry> nodes) throws InterruptedException {
+        AtomicLong highestToken = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        long start = System.nanoTime();
+        for (LeaseLockRegistry node : nodes) {
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < INCREMENTS; i++) {
+                        LeaseLockRegistry.LeaseLock lock = node.obtain("counter");
+                        lock.lock();
+                        try {
+                            long token = lock.fencingToken();
+                            if (token < highestToken.get()) {
+                                throw new IllegalStateException("Fencing token went back from " + highestToken.get() + " to " + token);
+                            }
+                            highestToken.set(token);
+                            counter++;
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                });
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(2, TimeUnit.MINUTES);
+        long expected = (long) NODES * THREADS_PER_NODE * INCREMENTS;
+        if (counter != expected) {
+            throw new IllegalStateException("Counter is " + counter + ", expected " + expected);
+        }
+        long statements = nodes.stream().mapToLong(LeaseLockRegistry::statementCount).sum();
+        System.out.printf("Mutual exclusion: %d increments on %d nodes in %d ms, %d leases granted, %d statements%n",
+                counter, NODES, (System.nanoTime() - start) / 1_000_000, highestToken.get(), statements);
+    }
+
+    // Locking a key this node already holds the lease for does not touch the database
+    private static void fastPath(LeaseLockRegistry node) {
+        Lock lock = node.obtain("report");
+        long before = node.statementCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            lock.lock();
+            lock.unlock();
+        }
+        System.out.printf("Fast path: 100000 lock/unlock pairs in %d ms with %d statements%n",
+                (System.nanoTime() - start) / 1_000_000, node.statementCount() - before);
+    }
+
+    // 100 keys in one acquisition; another node can not take any of them meanwhile
+    private static void lockAll(LeaseLockRegistry node, LeaseLockRegistry other) throws InterruptedException {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add("product-" + i);
+        }
+        long before = node.statementCount();
+        try (LeaseLockRegistry.Leases leases = node.lockAll(keys, Duration.ofSeconds(1))) {
+            long statements = node.statementCount() - before;
+            Lock contended = other.obtain("product-42");
+            if (contended.tryLock(100, TimeUnit.MILLISECONDS)) {
+                contended.unlock();
+                throw new IllegalStateException("Another node got a key held by lockAll");
+            }
+            System.out.printf("lockAll: %d keys with %d statements, token of product-42 is %d%n",
+                    keys.size(), statements, leases.fencingToken("product-42"));
+        }
+    }
+
+    // A node dies holding a lease: another node gets the key once the lease expires, with a higher token,
+    // so a store that remembers the highest token can reject late writes of the dead node
+    private static void crashedOwner(JdbcConnectionPool dataSource, LeaseLockRegistry survivor) throws InterruptedException {
+        LeaseLockRegistry crashing = new LeaseLockRegistry(dataSource, Duration.ofMillis(300), Duration.ofMillis(20));
+        LeaseLockRegistry.LeaseLock lock = crashing.obtain("job");
+        lock.lock();
+        long staleToken = lock.fencingToken();
+        crashing.abandon();
+
+        long start = System.nanoTime();
+        LeaseLockRegistry.LeaseLock taken = survivor.obtain("job");
+        if (!taken.tryLock(2, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Expired lease was not taken over");
+        }
+        try {
+            if (taken.fencingToken() <= staleToken) {
+                throw new IllegalStateException("Token " + taken.fencingToken() + " is not above " + staleToken);
+            }
+            System.out.printf("Crashed owner: lease taken over after %d ms, token %d -> %d%n",
+                    (System.nanoTime() - start) / 1_000_000, staleToken, taken.fencingToken());
+        } finally {
+            taken.unlock();
+        }
+    }
+
+    // Threads of one node keep a key locked back to back, so its lease is never idle; another node still gets
+    // the key once the lease has been held for maxLease
+    private static void busyKey(JdbcConnectionPool dataSource) throws InterruptedException {
+        Duration maxLease = Duration.ofMillis(300);
+        LeaseLockRegistry busy = new LeaseLockRegistry(dataSource, Duration.ofSeconds(2), Duration.ofMillis(20), maxLease);
+        LeaseLockRegistry waiting = new LeaseLockRegistry(dataSource, Duration.ofSeconds(2), Duration.ofMillis(20), maxLease);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                Thread thread = new Thread(() -> {
+                    Lock lock = busy.obtain("hot");
+                    while (running.get()) {
+                        lock.lock();
+                        try {
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            Thread.sleep(50);
+            long start = System.nanoTime();
+            Lock lock = waiting.obtain("hot");
+            if (!lock.tryLock(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Busy key was never handed over");
+            }
+            lock.unlock();
+            System.out.printf("Busy key: other node got it after %d ms with maxLease %d ms%n",
+                    (System.nanoTime() - start) / 1_000_000, maxLease.toMillis());
+        } finally {
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            busy.close();
+            waiting.close();
+        }
+    }
+}
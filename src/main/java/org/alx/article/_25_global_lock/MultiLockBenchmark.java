@@ -0,0 +1,110 @@
+package org.alx.article._25_global_lock;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
+import org.springframework.integration.support.locks.LockRegistry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+// Hundreds of concurrent carts buying from a small set of hot products.
+// "per product" is the original buyProducts: one lock per product, taken in cart order, so overlapping carts
+// run into lock-order cycles and only get out of them through the timeout.
+// "striped" takes all locks of the cart up front in canonical order with StripedMultiLock.
+public class MultiLockBenchmark {
+    private static final int CARTS = 400;
+    private static final int HOT_PRODUCTS = 32;
+    private static final int MAX_CART_SIZE = 6;
+    private static final long WORK_PER_PRODUCT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration RUN_TIME = Duration.ofSeconds(5);
+
+    interface CartLocking {
+        void buy(List<String> productIds) throws InterruptedException;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LockRegistry registry = new DefaultLockRegistry();
+        StripedMultiLock multiLock = new StripedMultiLock(registry);
+
+        run("per product", productIds -> {
+            Deque<Lock> held = new ArrayDeque<>();
+            try {
+                for (String productId : productIds) {
+                    Lock lock = registry.obtain(productId);
+                    if (!lock.tryLock(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                        throw new CannotAcquireLockException("Timed out on " + productId);
+                    }
+                    held.push(lock);
+                    work();
+                }
+            } finally {
+                while (!held.isEmpty()) {
+                    held.pop().unlock();
+                }
+            }
+        });
+
+        run("striped", productIds -> {
+            StripedMultiLock.Held held = multiLock.lockAll(productIds, TIMEOUT);
+            try {
+                for (int i = 0; i < productIds.size(); i++) {
+                    work();
+                }
+            } finally {
+                held.close();
+            }
+        });
+    }
+
+    private static void run(String name, CartLocking locking) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        LongAdder timedOut = new LongAdder();
+        long end = System.nanoTime() + RUN_TIME.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(CARTS);
+        for (int i = 0; i < CARTS; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < end) {
+                    try {
+                        locking.buy(randomCart());
+                        completed.increment();
+                    } catch (CannotAcquireLockException e) {
+                        timedOut.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(RUN_TIME.toSeconds() + 10, TimeUnit.SECONDS);
+        System.out.printf("%-12s %8.0f carts/s, %6d timed out%n",
+                name, completed.sum() / (double) RUN_TIME.toSeconds(), timedOut.sum());
+    }
+
+    private static List<String> randomCart() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = 1 + random.nextInt(MAX_CART_SIZE);
+        List<String> productIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            productIds.add("product-" + random.nextInt(HOT_PRODUCTS));
+        }
+        return productIds;
+    }
+
+    // Stands in for the insert and update round trips of doInsertAndUpdate
+    private static void work() {
+        LockSupport.parkNanos(WORK_PER_PRODUCT_NANOS);
+    }
+}
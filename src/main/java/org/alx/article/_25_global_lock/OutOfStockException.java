@@ -0,0 +1,16 @@
+package org.alx.article._25_global_lock;
+
+public class OutOfStockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String productId;
+
+    public OutOfStockException(String productId) {
+        super("Product " + productId + " is out of stock");
+        this.productId = productId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+}
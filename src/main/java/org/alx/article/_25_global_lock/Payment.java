@@ -1,4 +1,19 @@
 package org.alx.article._25_global_lock;
 
 public class Payment {
+    private final long amount;
+    private final String transaction;
+
+    public Payment(long amount, String transaction) {
+        this.amount = amount;
+        this.transaction = transaction;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public String getTransaction() {
+        return transaction;
+    }
 }
@@ -2,58 +2,151 @@ package org.alx.article._25_global_lock;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.integration.support.locks.LockRegistry;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.locks.Lock;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ProductService {
 
-    @Autowired
-    private LockRegistry lockRegistry;
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StripedMultiLock productLocks;
 
-    public void buyProducts1(List<Product> products, Payment userPayment) {
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
 
-        // execute check "SELECT 1 FROM Store WHERE id = ? AND amount > 1";
-        // execute insert payment "INSERT INTO Payment (amount, transaction) VALUES ...";
-        // execute insert order "INSERT INTO ProductOrder (payment, product_id) VALUES ..."
-        // execute store update "UPDATE Store SET amount = amount - 1 WHERE id = ?"
+    // Four statements per cart whatever its size, instead of four per product:
+    // - the cart's Store rows are read and locked at once, which tells exactly which products are short
+    // - stock is taken by one conditional set-based UPDATE per distinct quantity, usually just one
+    // - one payment insert, and the orders go to the database as a single JDBC batch
+    @Transactional
+    public PurchaseResult buyProducts1(List<Product> products, Payment userPayment) {
+        if (products.isEmpty()) {
+            // Nothing to lock or buy, and "IN ()" is not valid SQL
+            return PurchaseResult.success();
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (Product product : products) {
+            quantities.merge(product.getId(), 1, Integer::sum);
+        }
+        List<String> productIds = new ArrayList<>(quantities.keySet());
 
         final String checkSql =
-                "SELECT 1 FROM Store WHERE id = ? AND amount > 1";
-        //jdbcTemplate...
+                "SELECT id, amount FROM Store WHERE id IN (" + placeholders(productIds.size()) + ") FOR UPDATE";
+        Map<String, Integer> stock = new HashMap<>();
+        jdbcTemplate.query(checkSql, rs -> {
+            stock.put(rs.getString(1), rs.getInt(2));
+        }, productIds.toArray());
+        List<String> outOfStock = productIds.stream()
+                .filter(id -> stock.getOrDefault(id, 0) < quantities.get(id))
+                .toList();
+        if (!outOfStock.isEmpty()) {
+            return PurchaseResult.outOfStock(outOfStock);
+        }
+
+        Map<Integer, List<String>> idsByQuantity = new TreeMap<>();
+        quantities.forEach((id, quantity) -> idsByQuantity.computeIfAbsent(quantity, q -> new ArrayList<>()).add(id));
+        idsByQuantity.forEach((quantity, ids) -> {
+            final String updateStoreSql = "UPDATE Store SET amount = amount - ? WHERE id IN ("
+                    + placeholders(ids.size()) + ") AND amount >= ?";
+            List<Object> args = new ArrayList<>(ids.size() + 2);
+            args.add(quantity);
+            args.addAll(ids);
+            args.add(quantity);
+            int updated = jdbcTemplate.update(updateStoreSql, args.toArray());
+            if (updated != ids.size()) {
+                // The rows are locked by the check above, a shortfall here means the lock did not hold
+                throw new IllegalStateException("Expected to update " + ids.size() + " Store rows, updated " + updated);
+            }
+        });
+
+        long paymentId = insertPayment(userPayment);
+        insertOrders(paymentId, products);
+        return PurchaseResult.success();
+    }
+
+    // One attempt of the optimistic mode: no application lock, the conditional UPDATE alone guarantees
+    // the stock never goes below zero. Rows are updated in id order, so concurrent carts wait for each other's
+    // row locks instead of deadlocking; a lock wait that times out surfaces as a TransientDataAccessException
+    // and CheckoutService retries the whole transaction.
+    @Transactional
+    public void buyProductsOptimistic(List<Product> products, Payment userPayment) {
+        long paymentId = insertPayment(userPayment);
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(Product::getId));
+        for (Product product : sorted) {
+            decrementStock(product);
+        }
+        insertOrders(paymentId, products);
+    }
+
+    private long insertPayment(Payment userPayment) {
         final String insertPaymentSql =
-                "INSERT INTO Payment (amount, transaction) VALUES ...";
-        //jdbcTemplate...
-        final String insertOrderSql =
-                "INSERT INTO ProductOrder (payment, product_id) VALUES ...";
-        //jdbcTemplate...
+                "INSERT INTO Payment (amount, transaction) VALUES (?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(insertPaymentSql, Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, userPayment.getAmount());
+            statement.setString(2, userPayment.getTransaction());
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Long.class);
+    }
+
+    private void decrementStock(Product product) {
         final String updateStoreSql =
-                "UPDATE Store SET amount = amount - 1 WHERE id = ?";
-        //jdbcTemplate...
+                "UPDATE Store SET amount = amount - 1 WHERE id = ? AND amount > 0";
+        if (jdbcTemplate.update(updateStoreSql, product.getId()) == 0) {
+            throw new OutOfStockException(product.getId());
+        }
     }
 
-    @Transactional
-    public void buyProducts(List<Product> products, Payment userPayment) {
-        for (Product product : products) {
-            Lock lock = lockRegistry.obtain(product.getId());
-            lock.lock(); // lock.tryLock();
-            try {
-                doInsertAndUpdate(product);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } finally {
-                lock.unlock();
+    private void insertOrders(long paymentId, List<Product> products) {
+        final String insertOrderSql =
+                "INSERT INTO ProductOrder (payment, product_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(insertOrderSql, products, products.size(), (statement, product) -> {
+            statement.setLong(1, paymentId);
+            statement.setString(2, product.getId());
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // All products of the cart are locked up front in a canonical order, so two carts sharing products
+    // can not deadlock; the locks are released together when the cart is done.
+    // An interrupt while waiting for the locks fails the purchase and rolls the transaction back.
+    @Transactional(rollbackFor = InterruptedException.class)
+    public void buyProducts(List<Product> products, Payment userPayment) throws InterruptedException {
+        List<String> productIds = products.stream().map(Product::getId).toList();
+        StripedMultiLock.Held held = productLocks.lockAll(productIds, LOCK_TIMEOUT);
+        try {
+            long paymentId = insertPayment(userPayment);
+            for (Product product : products) {
+                doInsertAndUpdate(paymentId, product);
             }
+        } finally {
+            held.close();
         }
     }
 
-    private void doInsertAndUpdate(Product product) throws InterruptedException {
-        // Insert and update logic goes here
+    private void doInsertAndUpdate(long paymentId, Product product) {
+        decrementStock(product);
+        insertOrders(paymentId, List.of(product));
     }
 }
\ No newline at end of file
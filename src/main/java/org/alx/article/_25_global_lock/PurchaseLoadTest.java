@@ -0,0 +1,131 @@
+package org.alx.article._25_global_lock;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.tools.Server;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Concurrent buyers once per purchase strategy, on a small set of hot products and on a wide catalogue:
+// throughput, p99 latency per cart, and for the optimistic mode how often it had to retry or fall back.
+public class PurchaseLoadTest {
+    private static final int BUYERS = 64;
+    private static final int[] CATALOGUE_SIZES = {16, 1_000};
+    private static final int STOCK = 1_000_000;
+    private static final int MAX_CART_SIZE = 3;
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    public static void main(String[] args) throws Exception {
+        Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        // A short lock timeout turns long row lock waits into conflicts the optimistic mode can back off from
+        JdbcConnectionPool dataSource = JdbcConnectionPool.create(
+                "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=100", "sa", "");
+        dataSource.setMaxConnections(BUYERS);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(DataSource.class, () -> dataSource);
+            context.register(BatchedPurchaseExample.ShopConfig.class);
+            context.refresh();
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            CheckoutService checkoutService = context.getBean(CheckoutService.class);
+            BatchedPurchaseExample.createSchema(jdbcTemplate);
+
+            for (int products : CATALOGUE_SIZES) {
+                for (int round = 0; round < 2; round++) {
+                    for (PurchaseStrategy strategy : PurchaseStrategy.values()) {
+                        run(jdbcTemplate, checkoutService, strategy, products);
+                    }
+                }
+            }
+        } finally {
+            dataSource.dispose();
+            server.stop();
+        }
+    }
+
+    private static void run(JdbcTemplate jdbcTemplate, CheckoutService checkoutService, PurchaseStrategy strategy,
+                            int products) throws Exception {
+        BatchedPurchaseExample.fillStore(jdbcTemplate, products, STOCK);
+        checkoutService.setStrategy(strategy);
+        long conflictsBefore = checkoutService.getConflicts();
+        long fallbacksBefore = checkoutService.getFallbacks();
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        long end = System.nanoTime() + RUN_NANOS;
+        List<Future<long[]>> futures = new ArrayList<>(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            int buyer = i;
+            futures.add(executor.submit(() -> buyUntil(checkoutService, buyer, products, end)));
+        }
+
+        long[] latencies = new long[0];
+        int failed = 0;
+        try {
+            for (Future<long[]> future : futures) {
+                long[] buyerLatencies = future.get();
+                int completed = (int) buyerLatencies[0];
+                failed += (int) buyerLatencies[1];
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + completed);
+                System.arraycopy(buyerLatencies, 2, latencies, offset, completed);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Arrays.sort(latencies);
+
+        int sold = BatchedPurchaseExample.count(jdbcTemplate, "ProductOrder");
+        int left = jdbcTemplate.queryForObject("SELECT SUM(amount) FROM Store", Integer.class);
+        if (sold + left != products * STOCK) {
+            throw new IllegalStateException("Stock does not add up: sold " + sold + ", left " + left);
+        }
+        System.out.printf("%4d products %-10s %7.0f carts/s, p99 %7.2f ms, failed %d, conflicts %d, fallbacks %d%n",
+                products, strategy, latencies.length / (RUN_NANOS / 1e9), percentile(latencies, 0.99) / 1e6, failed,
+                checkoutService.getConflicts() - conflictsBefore, checkoutService.getFallbacks() - fallbacksBefore);
+    }
+
+    // [completed, failed, latency...]
+    private static long[] buyUntil(CheckoutService checkoutService, int buyer, int products, long end) {
+        long[] result = new long[1 << 16];
+        int completed = 0;
+        int failed = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            int size = 1 + random.nextInt(MAX_CART_SIZE);
+            List<Product> cart = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                cart.add(new Product("product-" + random.nextInt(products)));
+            }
+            long start = System.nanoTime();
+            try {
+                checkoutService.buy(cart, new Payment(size * 100L, "tx-" + buyer + "-" + completed));
+                if (completed + 2 == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                result[2 + completed++] = System.nanoTime() - start;
+            } catch (TransientDataAccessException e) {
+                failed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        result[0] = completed;
+        result[1] = failed;
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,15 @@
+package org.alx.article._25_global_lock;
+
+import java.util.List;
+
+// Outcome of a cart purchase, outOfStock lists the products that did not have enough items
+public record PurchaseResult(boolean purchased, List<String> outOfStock) {
+
+    public static PurchaseResult success() {
+        return new PurchaseResult(true, List.of());
+    }
+
+    public static PurchaseResult outOfStock(List<String> productIds) {
+        return new PurchaseResult(false, List.copyOf(productIds));
+    }
+}
@@ -0,0 +1,8 @@
+package org.alx.article._25_global_lock;
+
+public enum PurchaseStrategy {
+    // Every cart takes the product locks (ProductService.buyProducts)
+    LOCKING,
+    // Conditional updates without locks, retried with backoff and falling back to LOCKING on repeated conflicts
+    OPTIMISTIC
+}
@@ -0,0 +1,130 @@
+package org.alx.article._25_global_lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+// Locks a whole set of keys at once, free of deadlocks:
+// - keys are mapped onto a fixed number of stripes, duplicates and keys sharing a stripe collapse into one lock
+// - the locks are always acquired in one global order, so two callers can never wait for each other in a cycle
+// - all locks share one deadline, on timeout the ones already taken are released and nothing is held
+// The stripe locks come from the LockRegistry, so the same code works with a local or a distributed registry.
+@Component
+public class StripedMultiLock {
+    private static final int DEFAULT_STRIPES = 256;
+
+    // Distinct lock instances, the canonical acquisition order is their index in this array
+    private final Lock[] locks;
+    // Stripe -> index into locks
+    private final int[] stripes;
+
+    @Autowired
+    public StripedMultiLock(LockRegistry lockRegistry) {
+        this(lockRegistry, DEFAULT_STRIPES);
+    }
+
+    public StripedMultiLock(LockRegistry lockRegistry, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("stripeCount must be positive: " + stripeCount);
+        }
+        // A registry may hand out the same lock for two stripe keys (DefaultLockRegistry is itself striped).
+        // Ordering by stripe would then not be a total order over the real locks, so order by lock instance.
+        Map<Lock, Integer> distinct = new IdentityHashMap<>();
+        stripes = new int[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            Lock lock = lockRegistry.obtain("stripe-" + i);
+            stripes[i] = distinct.computeIfAbsent(lock, l -> distinct.size());
+        }
+        locks = new Lock[distinct.size()];
+        distinct.forEach((lock, index) -> locks[index] = lock);
+    }
+
+    // Held locks, closing releases them in reverse acquisition order
+    public static final class Held implements AutoCloseable {
+        private final Lock[] locks;
+        private int count;
+
+        private Held(int capacity) {
+            this.locks = new Lock[capacity];
+        }
+
+        private void add(Lock lock) {
+            locks[count++] = lock;
+        }
+
+        public int lockCount() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            RuntimeException failure = null;
+            while (count > 0) {
+                try {
+                    locks[--count].unlock();
+                } catch (RuntimeException e) {
+                    // Keep releasing the rest, a distributed lock may fail to unlock after its lease expired
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    public Held lockAll(Collection<String> keys, Duration timeout) throws InterruptedException {
+        int[] order = lockOrder(keys);
+        Held held = new Held(order.length);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (int index : order) {
+                Lock lock = locks[index];
+                if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new CannotAcquireLockException(
+                            "Timed out after " + timeout + " waiting for " + keys.size() + " keys");
+                }
+                held.add(lock);
+            }
+            return held;
+        } catch (InterruptedException | RuntimeException e) {
+            held.close();
+            throw e;
+        }
+    }
+
+    // Sorted, distinct lock indexes of the keys
+    int[] lockOrder(Collection<String> keys) {
+        int[] order = new int[keys.size()];
+        int i = 0;
+        for (String key : keys) {
+            order[i++] = stripes[stripeOf(key)];
+        }
+        Arrays.sort(order);
+        int distinct = 0;
+        for (int j = 0; j < order.length; j++) {
+            if (j == 0 || order[j] != order[j - 1]) {
+                order[distinct++] = order[j];
+            }
+        }
+        return Arrays.copyOf(order, distinct);
+    }
+
+    private int stripeOf(String key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+}
@@ -1,16 +1,19 @@
 package org.alx.article._26_scheduling_async;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    // Queue wait, run time and rejections are in JMX under org.alx.article:type=Executor,name=jobExecutor
     @Bean(name = "jobExecutor")
     public Executor jobExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -19,6 +22,19 @@ public class AsyncConfig {
         executor.setQueueCapacity(30);
         executor.setThreadNamePrefix("jobExecutor-");
         executor.initialize();
-        return executor;
+        return new InstrumentedExecutor(executor, new ExecutorMetrics("jobExecutor").registerMBean());
+    }
+
+    // For blocking I/O jobs: @Async("virtualJobExecutor")
+    @Bean(name = "virtualJobExecutor", destroyMethod = "close")
+    public VirtualThreadJobExecutor virtualJobExecutor(
+            @Value("${jobs.virtual-threads.max-concurrency:200}") int maxConcurrency) {
+        return new VirtualThreadJobExecutor("virtualJob-", maxConcurrency);
+    }
+
+    @Bean(destroyMethod = "close")
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            @Value("${jobs.virtual-threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        return new PinnedThreadMonitor(Duration.ofMillis(thresholdMillis));
     }
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+package org.alx.article._26_scheduling_async;
+
+import org.alx.article.common.LatencyHistogram;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Counters and latency histograms of one executor, filled by InstrumentedExecutor:
+// - queue wait: from the moment a task was submitted until it starts
+// - run time: from start to end of the task
+// - submitted, rejected, completed and failed tasks; active and queued are derived from them
+// Every task is counted, but only 1 in sampleEvery is timed: a clock read costs tens of nanoseconds on many
+// machines and timing takes three of them, so the histograms hold a sample and the counters are exact.
+// An untimed task costs three LongAdder increments: submitted, started and finished.
+public class ExecutorMetrics implements ExecutorMetricsMBean, AutoCloseable {
+    // readyNanos of a task that is not timed
+    static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final String name;
+    private final int sampleEvery;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private ObjectName objectName;
+    private ScheduledExecutorService reporter;
+
+    public record Snapshot(String name, long submitted, long rejected, long completed, long failed,
+                           long active, long queued,
+                           LatencyHistogram.Snapshot queueWait, LatencyHistogram.Snapshot runTime) {
+
+        // Counters and latencies of the interval since an earlier snapshot; active and queued stay current
+        public Snapshot minus(Snapshot earlier) {
+            return new Snapshot(name, submitted - earlier.submitted, rejected - earlier.rejected,
+                    completed - earlier.completed, failed - earlier.failed, active, queued,
+                    queueWait.minus(earlier.queueWait), runTime.minus(earlier.runTime));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d submitted, %d rejected, %d completed, %d failed, %d active, %d queued, "
+                            + "wait p50/p99/max %s/%s/%s, run p50/p99/max %s/%s/%s",
+                    name, submitted, rejected, completed, failed, active, queued,
+                    format(queueWait.percentile(50)), format(queueWait.percentile(99)), format(queueWait.max()),
+                    format(runTime.percentile(50)), format(runTime.percentile(99)), format(runTime.max()));
+        }
+
+        private static String format(long nanos) {
+            if (nanos >= 1_000_000) {
+                return String.format("%.1f ms", nanos / 1e6);
+            }
+            return nanos >= 1_000 ? String.format("%.1f us", nanos / 1e3) : nanos + " ns";
+        }
+    }
+
+    public ExecutorMetrics(String name, int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be positive: " + sampleEvery);
+        }
+        this.name = name;
+        this.sampleEvery = sampleEvery;
+    }
+
+    // Times 1 in 10 tasks
+    public ExecutorMetrics(String name) {
+        this(name, 10);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Registers the metrics with the platform MBean server as org.alx.article:type=Executor,name=<name>.
+    // If another executor of the same name is registered, say from a second application context in the same JVM,
+    // the name gets an instance key: org.alx.article:type=Executor,name=<name>,instance=2 and so on.
+    public synchronized ExecutorMetrics registerMBean() {
+        if (objectName != null) {
+            return this;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (int instance = 1; ; instance++) {
+                ObjectName candidate = new ObjectName("org.alx.article:type=Executor,name=" + name
+                        + (instance == 1 ? "" : ",instance=" + instance));
+                try {
+                    server.registerMBean(this, candidate);
+                    objectName = candidate;
+                    return this;
+                } catch (InstanceAlreadyExistsException e) {
+                    // Taken, try the next instance
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Can not register MBean for executor " + name, e);
+        }
+    }
+
+    // Name the metrics are registered under, null if they are not
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    // Calls the listener every interval with what happened during that interval
+    public synchronized void startReporting(Duration interval, Consumer<Snapshot> listener) {
+        if (reporter != null) {
+            throw new IllegalStateException("Reporting is already started for executor " + name);
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Snapshot[] previous = {snapshot()};
+        reporter.scheduleAtFixedRate(() -> {
+            Snapshot current = snapshot();
+            listener.accept(current.minus(previous[0]));
+            previous[0] = current;
+        }, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public Snapshot snapshot() {
+        // Finished before started before submitted, so a task moving on meanwhile is not counted twice
+        long failedCount = failed.sum();
+        long finishedCount = finished.sum();
+        long startedCount = started.sum();
+        long rejectedCount = rejected.sum();
+        long submittedCount = submitted.sum();
+        long completedCount = Math.max(0, finishedCount - failedCount);
+        long active = Math.max(0, startedCount - finishedCount);
+        long queued = Math.max(0, submittedCount - rejectedCount - startedCount);
+        return new Snapshot(name, submittedCount, rejectedCount, completedCount, failedCount, active, queued,
+                queueWait.snapshot(), runTime.snapshot());
+    }
+
+    // Counts the task and decides whether it is timed: returns the current System.nanoTime() as its readyNanos,
+    // or NOT_SAMPLED
+    long onSubmit() {
+        submitted.increment();
+        return sample() ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    boolean sample() {
+        return sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+    }
+
+    void onReject() {
+        rejected.increment();
+    }
+
+    // Runs the task on the calling worker thread, readyNanos is the System.nanoTime() it could have started at,
+    // or NOT_SAMPLED for a task that is only counted
+    void run(Runnable task, long readyNanos) {
+        long start = begin(readyNanos);
+        boolean success = false;
+        try {
+            task.run();
+            success = true;
+        } finally {
+            end(start, success);
+        }
+    }
+
+    private long begin(long readyNanos) {
+        started.increment();
+        if (readyNanos == NOT_SAMPLED) {
+            return NOT_SAMPLED;
+        }
+        long start = System.nanoTime();
+        queueWait.record(start - readyNanos);
+        return start;
+    }
+
+    private void end(long start, boolean success) {
+        // Failed before finished, so completed, derived from both, never counts a failed task
+        if (!success) {
+            failed.increment();
+        }
+        if (start != NOT_SAMPLED) {
+            runTime.record(System.nanoTime() - start);
+        }
+        finished.increment();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                // Already gone
+            }
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getCompleted() {
+        return snapshot().completed();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getActive() {
+        return snapshot().active();
+    }
+
+    @Override
+    public long getQueued() {
+        return snapshot().queued();
+    }
+
+    @Override
+    public double getQueueWaitMeanMicros() {
+        return queueWait.snapshot().mean() / 1e3;
+    }
+
+    @Override
+    public double getQueueWaitP99Micros() {
+        return queueWait.snapshot().percentile(99) / 1e3;
+    }
+
+    @Override
+    public double getQueueWaitMaxMicros() {
+        return queueWait.snapshot().max() / 1e3;
+    }
+
+    @Override
+    public double getRunTimeMeanMicros() {
+        return runTime.snapshot().mean() / 1e3;
+    }
+
+    @Override
+    public double getRunTimeP99Micros() {
+        return runTime.snapshot().percentile(99) / 1e3;
+    }
+
+    @Override
+    public double getRunTimeMaxMicros() {
+        return runTime.snapshot().max() / 1e3;
+    }
+}
@@ -0,0 +1,108 @@
+package org.alx.article._26_scheduling_async;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ExecutorMetricsExample {
+    // Keeps the clock loop from being optimized away
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        overhead();
+        saturatedJobExecutor();
+        lateScheduledTasks();
+    }
+
+    // Cost of the decorator itself: empty tasks run on the calling thread, with and without it.
+    // A timed task takes three System.nanoTime() calls, whose cost depends on the clock source of the machine;
+    // with 1 in 10 tasks timed, the counters are most of what is left.
+    private static void overhead() {
+        Executor direct = Runnable::run;
+        InstrumentedExecutor instrumented = new InstrumentedExecutor(direct, new ExecutorMetrics("direct"));
+        InstrumentedExecutor timedAlways = new InstrumentedExecutor(direct, new ExecutorMetrics("direct", 1));
+        int tasks = 20_000_000;
+        long[] counter = new long[1];
+        Runnable task = () -> counter[0]++;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                direct.execute(task);
+            }
+            long plain = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                instrumented.execute(task);
+            }
+            long decorated = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                timedAlways.execute(task);
+            }
+            long always = System.nanoTime() - start;
+            start = System.nanoTime();
+            long clock = 0;
+            for (int i = 0; i < tasks; i++) {
+                clock += System.nanoTime();
+            }
+            double clockNanos = (System.nanoTime() - start) / (double) tasks;
+            sink = clock;
+            System.out.printf("Overhead, round %d: %.1f ns per task sampling 1 in 10, %.1f ns timing every task "
+                            + "(%.1f ns plain), 3 clock reads %.1f ns%n", round + 1, (decorated - plain) / (double) tasks,
+                    (always - plain) / (double) tasks, plain / (double) tasks, 3 * clockNanos);
+        }
+        System.out.println("  " + instrumented.getMetrics().snapshot());
+    }
+
+    // A burst of 10 ms jobs on jobExecutor as configured in AsyncConfig: the queue fills, the rest is rejected
+    private static void saturatedJobExecutor() throws Exception {
+        InstrumentedExecutor jobExecutor = (InstrumentedExecutor) new AsyncConfig().jobExecutor();
+        jobExecutor.getMetrics().startReporting(Duration.ofMillis(100), snapshot -> System.out.println("  " + snapshot));
+        for (int second = 0; second < 3; second++) {
+            for (int i = 0; i < 100; i++) {
+                try {
+                    jobExecutor.execute(() -> sleep(10));
+                } catch (RejectedExecutionException e) {
+                    // Counted by the decorator
+                }
+            }
+            Thread.sleep(100);
+        }
+        Thread.sleep(200);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = jobExecutor.getMetrics().getObjectName();
+        System.out.printf("JMX jobExecutor: Rejected=%s QueueWaitP99Micros=%s RunTimeP99Micros=%s%n",
+                server.getAttribute(name, "Rejected"), server.getAttribute(name, "QueueWaitP99Micros"),
+                server.getAttribute(name, "RunTimeP99Micros"));
+        jobExecutor.close();
+    }
+
+    // The scheduler of SchedulerConfig: 200 tasks of 1 ms all due at the same moment queue up for the 10 workers,
+    // the queue wait of the workers shows how late the last ones start
+    private static void lateScheduledTasks() throws InterruptedException {
+        InstrumentedExecutor workers = new InstrumentedExecutor(Executors.newFixedThreadPool(10),
+                new ExecutorMetrics("taskScheduler", 1).registerMBean());
+        try (TimingWheelTaskScheduler scheduler = new TimingWheelTaskScheduler(workers, Duration.ofMillis(1))) {
+            Instant due = Instant.now().plusMillis(50);
+            for (int i = 0; i < 200; i++) {
+                scheduler.schedule(() -> sleep(1), due);
+            }
+            Thread.sleep(500);
+            System.out.println("Scheduler " + workers.getMetrics().snapshot());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.alx.article._26_scheduling_async;
+
+// JMX view of ExecutorMetrics, visible in JConsole/VisualVM under org.alx.article:type=Executor.
+// Counters are exact; latencies are cumulative since start, in microseconds, over the sampled tasks.
+public interface ExecutorMetricsMBean {
+
+    long getSubmitted();
+
+    long getRejected();
+
+    long getCompleted();
+
+    long getFailed();
+
+    long getActive();
+
+    long getQueued();
+
+    double getQueueWaitMeanMicros();
+
+    double getQueueWaitP99Micros();
+
+    double getQueueWaitMaxMicros();
+
+    double getRunTimeMeanMicros();
+
+    double getRunTimeP99Micros();
+
+    double getRunTimeMaxMicros();
+}
@@ -0,0 +1,46 @@
+package org.alx.article._26_scheduling_async;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+// Decorator counting every task passed to the delegate executor, with rejections, and recording queue wait and
+// run time of the sampled ones
+public class InstrumentedExecutor implements TaskExecutor, AutoCloseable {
+    private final Executor delegate;
+    private final ExecutorMetrics metrics;
+
+    public InstrumentedExecutor(Executor delegate, ExecutorMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = metrics.onSubmit();
+        try {
+            delegate.execute(() -> metrics.run(task, submittedAt));
+        } catch (RejectedExecutionException e) {
+            metrics.onReject();
+            throw e;
+        }
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Shuts the delegate down and unregisters the metrics
+    @Override
+    public void close() {
+        if (delegate instanceof ExecutorConfigurationSupport executor) {
+            executor.shutdown();
+        } else if (delegate instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+        metrics.close();
+    }
+}
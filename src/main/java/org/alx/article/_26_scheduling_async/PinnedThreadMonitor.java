@@ -0,0 +1,65 @@
+package org.alx.article._26_scheduling_async;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Reports virtual threads that blocked while pinned to their carrier, typically inside a synchronized block.
+// A pinned virtual thread holds its carrier thread while it waits, with enough of them all carriers are
+// taken and every other virtual thread stalls. The JVM emits a jdk.VirtualThreadPinned JFR event for each
+// such wait longer than the threshold; this monitor streams them in-process and counts them per call site.
+public class PinnedThreadMonitor implements AutoCloseable {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream = new RecordingStream();
+    private final LongAdder pinnedCount = new LongAdder();
+    private final Map<String, LongAdder> countBySite = new ConcurrentHashMap<>();
+
+    public PinnedThreadMonitor(Duration threshold) {
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, event -> {
+            pinnedCount.increment();
+            countBySite.computeIfAbsent(callSite(event.getStackTrace()), site -> new LongAdder()).increment();
+        });
+        stream.startAsync();
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    // Call sites with the most pinned waits, most frequent first
+    public List<Map.Entry<String, Long>> topSites(int limit) {
+        return countBySite.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    // First frame outside the JDK, that is where the application blocked while holding a monitor
+    private static String callSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
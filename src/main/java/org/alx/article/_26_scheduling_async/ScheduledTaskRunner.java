@@ -0,0 +1,247 @@
+package org.alx.article._26_scheduling_async;
+
+import org.alx.article.common.LatencyHistogram;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.ErrorHandler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs scheduled tasks on a worker executor with a policy for a run that is due while the previous one is still going.
+// @Scheduled alone blocks the scheduler thread on a slow run, @Async on top lets slow runs pile up without limit;
+// here the scheduler only dispatches, and the policy decides:
+// - SKIP: the due run is dropped
+// - COALESCE: all runs missed meanwhile become one run, started as soon as the current one ends
+// - CONCURRENT: up to maxConcurrent runs at once, runs beyond that are dropped
+// Each task can be shifted by a fixed jitter derived from the instance id and the task name, so the same cron on
+// many instances, or many crons on one instance, no longer all fire at the top of the second.
+// Start lateness (start against the jittered due time, so the jitter itself is not counted) and duration of every
+// run go into histograms. A failing run, Errors included, is counted and passed to the ErrorHandler, and never keeps
+// the task from running again.
+public class ScheduledTaskRunner {
+    private final TaskScheduler scheduler;
+    private final Executor executor;
+    private final String instanceId;
+    private final Map<String, GuardedTask> tasks = new ConcurrentHashMap<>();
+    private volatile ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+
+    public enum Overlap {
+        SKIP, COALESCE, CONCURRENT
+    }
+
+    public record Policy(Overlap overlap, int maxConcurrent, Duration maxJitter) {
+
+        public Policy {
+            if (maxConcurrent < 1) {
+                throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+            }
+        }
+
+        public static Policy skip() {
+            return new Policy(Overlap.SKIP, 1, Duration.ZERO);
+        }
+
+        public static Policy coalesce() {
+            return new Policy(Overlap.COALESCE, 1, Duration.ZERO);
+        }
+
+        public static Policy concurrent(int maxConcurrent) {
+            return new Policy(Overlap.CONCURRENT, maxConcurrent, Duration.ZERO);
+        }
+
+        // Keep it below the period of the trigger, or runs are shifted into the next period
+        public Policy withJitter(Duration maxJitter) {
+            return new Policy(overlap, maxConcurrent, maxJitter);
+        }
+    }
+
+    public record TaskStats(String name, Duration jitter, long runs, long skipped, long coalesced, long failed,
+                            LatencyHistogram.Snapshot lateness, LatencyHistogram.Snapshot duration) {
+
+        @Override
+        public String toString() {
+            return String.format("%s (jitter %d ms): %d runs, %d skipped, %d coalesced, %d failed, "
+                            + "lateness p50/p99/max %.0f/%.0f/%.0f ms, duration p50/max %.0f/%.0f ms",
+                    name, jitter.toMillis(), runs, skipped, coalesced, failed,
+                    lateness.percentile(50) / 1e6, lateness.percentile(99) / 1e6, lateness.max() / 1e6,
+                    duration.percentile(50) / 1e6, duration.max() / 1e6);
+        }
+    }
+
+    public ScheduledTaskRunner(TaskScheduler scheduler, Executor executor, String instanceId) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.instanceId = instanceId;
+    }
+
+    // Gets the failures of the tasks; logs them by default
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public ScheduledFuture<?> schedule(String name, Runnable task, String cron, Policy policy) {
+        return schedule(name, task, new CronTrigger(cron), policy);
+    }
+
+    public ScheduledFuture<?> schedule(String name, Runnable task, Trigger trigger, Policy policy) {
+        GuardedTask guarded = new GuardedTask(name, task, policy, jitterOf(name, policy.maxJitter()));
+        if (tasks.putIfAbsent(name, guarded) != null) {
+            throw new IllegalArgumentException("Task " + name + " is already scheduled");
+        }
+        return scheduler.schedule(guarded::dispatch, guarded.jittered(trigger));
+    }
+
+    public TaskStats stats(String name) {
+        GuardedTask task = tasks.get(name);
+        if (task == null) {
+            throw new IllegalArgumentException("No task " + name);
+        }
+        return task.stats();
+    }
+
+    // The same for a given instance and task on every start, different between instances and tasks
+    Duration jitterOf(String name, Duration maxJitter) {
+        long bound = maxJitter.toMillis();
+        if (bound <= 0) {
+            return Duration.ZERO;
+        }
+        long hash = (instanceId + "/" + name).hashCode() * 0x9E3779B97F4A7C15L;
+        return Duration.ofMillis(Math.floorMod(hash ^ (hash >>> 32), bound));
+    }
+
+    private final class GuardedTask {
+        private final String name;
+        private final Runnable task;
+        private final Policy policy;
+        private final Duration jitter;
+        private final AtomicInteger running = new AtomicInteger();
+        // Due time of the first run missed while COALESCE waits for the current run, null if none
+        private final AtomicReference<Instant> missedSince = new AtomicReference<>();
+        // Due time of the next fire, jitter included
+        private volatile Instant nextDue;
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LatencyHistogram lateness = new LatencyHistogram();
+        private final LatencyHistogram duration = new LatencyHistogram();
+
+        GuardedTask(String name, Runnable task, Policy policy, Duration jitter) {
+            this.name = name;
+            this.task = task;
+            this.policy = policy;
+            this.jitter = jitter;
+        }
+
+        // Shifts every execution of the trigger by the jitter; the trigger itself only sees un-jittered times,
+        // so a fixed-rate trigger does not drift by the jitter on every run
+        Trigger jittered(Trigger trigger) {
+            return context -> {
+                Instant lastScheduled = context.lastScheduledExecution();
+                TriggerContext unjittered = new SimpleTriggerContext(
+                        lastScheduled == null ? null : lastScheduled.minus(jitter),
+                        context.lastActualExecution(), context.lastCompletion());
+                Instant next = trigger.nextExecution(unjittered);
+                nextDue = next == null ? null : next.plus(jitter);
+                return nextDue;
+            };
+        }
+
+        // On the scheduler thread: decide, hand over, return at once
+        void dispatch() {
+            Instant due = nextDue;
+            switch (policy.overlap()) {
+                case SKIP, CONCURRENT -> {
+                    if (tryAcquire()) {
+                        submit(due);
+                    } else {
+                        skipped.increment();
+                    }
+                }
+                case COALESCE -> {
+                    if (running.compareAndSet(0, 1)) {
+                        submit(due);
+                        return;
+                    }
+                    // Keeps the earliest due time if a missed run is already waiting
+                    missedSince.compareAndSet(null, due);
+                    coalesced.increment();
+                    // The current run may have ended before the miss was recorded and not have seen it
+                    if (running.compareAndSet(0, 1)) {
+                        Instant missed = missedSince.getAndSet(null);
+                        if (missed != null) {
+                            submit(missed);
+                        } else {
+                            running.decrementAndGet();
+                        }
+                    }
+                }
+            }
+        }
+
+        private boolean tryAcquire() {
+            int current;
+            while ((current = running.get()) < policy.maxConcurrent()) {
+                if (running.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void submit(Instant due) {
+            try {
+                executor.execute(() -> run(due));
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                skipped.increment();
+            }
+        }
+
+        private void run(Instant due) {
+            Instant dueAt = due;
+            while (true) {
+                lateness.record(Duration.between(dueAt, Instant.now()).toNanos());
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    failed.increment();
+                    errorHandler.handleError(e);
+                } finally {
+                    duration.record(System.nanoTime() - start);
+                    runs.increment();
+                    // Even if the ErrorHandler rethrows, or the slot would stay taken and the task never run again
+                    running.decrementAndGet();
+                }
+                if (policy.overlap() != Overlap.COALESCE) {
+                    return;
+                }
+                // Runs missed meanwhile: one more run right away, unless a new fire already took the slot
+                Instant missed = missedSince.getAndSet(null);
+                if (missed == null || !running.compareAndSet(0, 1)) {
+                    return;
+                }
+                dueAt = missed;
+            }
+        }
+
+        TaskStats stats() {
+            return new TaskStats(name, jitter, runs.sum(), skipped.sum(), coalesced.sum(), failed.sum(),
+                    lateness.snapshot(), duration.snapshot());
+        }
+    }
+}
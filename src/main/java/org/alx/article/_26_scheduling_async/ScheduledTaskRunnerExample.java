@@ -0,0 +1,60 @@
+package org.alx.article._26_scheduling_async;
+
+import org.springframework.scheduling.support.PeriodicTrigger;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// task2 of MyScheduledTasks sped up 10 times: 300 ms of work every 500 ms, plus a slow spell where it takes 1.2 s.
+// Each policy runs for RUN_MILLIS on the timing wheel; then the jitter spreads one cron over several instances.
+public class ScheduledTaskRunnerExample {
+    private static final long RUN_MILLIS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(20);
+        try (TimingWheelTaskScheduler scheduler = new TimingWheelTaskScheduler(workers, Duration.ofMillis(1))) {
+            ScheduledTaskRunner runner = new ScheduledTaskRunner(scheduler, workers, "node-1");
+            run(runner, "unguarded (@Async)", ScheduledTaskRunner.Policy.concurrent(Integer.MAX_VALUE));
+            run(runner, "skip", ScheduledTaskRunner.Policy.skip());
+            run(runner, "coalesce", ScheduledTaskRunner.Policy.coalesce());
+            run(runner, "2 concurrent", ScheduledTaskRunner.Policy.concurrent(2));
+
+            System.out.println("Jitter of a once-a-second cron, up to 900 ms:");
+            for (String instance : new String[]{"node-1", "node-2", "node-3", "node-4"}) {
+                ScheduledTaskRunner other = new ScheduledTaskRunner(scheduler, workers, instance);
+                System.out.printf("  %s: task1 +%d ms, task2 +%d ms%n", instance,
+                        other.jitterOf("task1", Duration.ofMillis(900)).toMillis(),
+                        other.jitterOf("task2", Duration.ofMillis(900)).toMillis());
+            }
+        }
+    }
+
+    private static void run(ScheduledTaskRunner runner, String name, ScheduledTaskRunner.Policy policy)
+            throws InterruptedException {
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Runnable task2 = () -> {
+            int run = started.incrementAndGet();
+            peak.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                // Runs 3 to 6 hit a slow downstream
+                Thread.sleep(run >= 3 && run <= 6 ? 1_200 : 300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        };
+        PeriodicTrigger trigger = new PeriodicTrigger(Duration.ofMillis(500));
+        trigger.setFixedRate(true);
+        var future = runner.schedule(name, task2, trigger, policy.withJitter(Duration.ofMillis(100)));
+        Thread.sleep(RUN_MILLIS);
+        future.cancel(false);
+        // Let the last runs finish
+        Thread.sleep(1_500);
+        System.out.println(runner.stats(name) + ", peak concurrency " + peak.get());
+    }
+}
@@ -1,28 +1,49 @@
 package org.alx.article._26_scheduling_async;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class SchedulerConfig implements SchedulingConfigurer {
 
+    @Value("${scheduler.tick-ms:1}")
+    private long tickMillis = 1;
+
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
         taskRegistrar.setScheduler(taskExecutor());
     }
 
+    // A timing wheel decides when, 10 worker threads run the due tasks; queue wait of the workers is in JMX
+    // under org.alx.article:type=Executor,name=taskScheduler
+    @Bean(destroyMethod = "close")
+    public TimingWheelTaskScheduler taskExecutor() {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(10, 10, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        return new TimingWheelTaskScheduler(
+                new InstrumentedExecutor(workers, new ExecutorMetrics("taskScheduler").registerMBean()),
+                Duration.ofMillis(tickMillis));
+    }
+
+    // Slow jobs like MyScheduledTasks.task2 without piling up: the wheel fires, jobExecutor runs, e.g.
+    // runner.schedule("task2", tasks::task2, "*/5 * * * * *", Policy.coalesce().withJitter(Duration.ofSeconds(1)))
     @Bean
-    public Executor taskExecutor() {
-        return Executors.newScheduledThreadPool(10);
+    public ScheduledTaskRunner scheduledTaskRunner(@Qualifier("jobExecutor") Executor jobExecutor,
+                                                   @Value("${scheduler.instance-id:${HOSTNAME:local}}") String instanceId) {
+        return new ScheduledTaskRunner(taskExecutor(), jobExecutor, instanceId);
     }
 
     public void shutdown() {
 
     }
 
-}
\ No newline at end of file
+}
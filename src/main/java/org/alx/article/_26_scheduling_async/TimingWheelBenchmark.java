@@ -0,0 +1,133 @@
+package org.alx.article._26_scheduling_async;
+
+import org.alx.article.common.LatencyHistogram;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// TimingWheelTaskScheduler against Spring's ThreadPoolTaskScheduler (a ScheduledThreadPoolExecutor underneath):
+// - timeouts: THREADS threads schedule TIMEOUTS tasks 10..60 s ahead, then cancel them all, as request
+//   timeouts do when the responses arrive in time
+// - accuracy: how late short timers fire
+// - drop-in: SchedulerConfig registered with a ScheduledTaskRegistrar running a cron and a fixed-rate task
+public class TimingWheelBenchmark {
+    private static final int TIMEOUTS = 1_000_000;
+    private static final int THREADS = 4;
+    private static final int TIMERS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 0; round < 2; round++) {
+            ThreadPoolTaskScheduler heap = new ThreadPoolTaskScheduler();
+            heap.setPoolSize(10);
+            heap.setRemoveOnCancelPolicy(true);
+            heap.initialize();
+            timeouts("ThreadPoolTaskScheduler", heap);
+            heap.shutdown();
+
+            try (TimingWheelTaskScheduler wheel = newWheel()) {
+                timeouts("TimingWheelTaskScheduler", wheel);
+            }
+        }
+
+        ThreadPoolTaskScheduler heap = new ThreadPoolTaskScheduler();
+        heap.setPoolSize(10);
+        heap.initialize();
+        accuracy("ThreadPoolTaskScheduler", heap);
+        heap.shutdown();
+        try (TimingWheelTaskScheduler wheel = newWheel()) {
+            accuracy("TimingWheelTaskScheduler", wheel);
+        }
+
+        dropIn();
+    }
+
+    private static TimingWheelTaskScheduler newWheel() {
+        return new TimingWheelTaskScheduler(Executors.newFixedThreadPool(10), Duration.ofMillis(1));
+    }
+
+    private static void timeouts(String name, TaskScheduler scheduler) throws Exception {
+        ExecutorService producers = Executors.newFixedThreadPool(THREADS);
+        Runnable timeout = () -> {
+            throw new IllegalStateException("Timeout fired");
+        };
+        List<Future<List<ScheduledFuture<?>>>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            results.add(producers.submit(() -> {
+                Random random = new Random(seed);
+                Instant now = Instant.now();
+                List<ScheduledFuture<?>> futures = new ArrayList<>(TIMEOUTS / THREADS);
+                for (int i = 0; i < TIMEOUTS / THREADS; i++) {
+                    futures.add(scheduler.schedule(timeout, now.plusMillis(10_000 + random.nextInt(50_000))));
+                }
+                return futures;
+            }));
+        }
+        List<List<ScheduledFuture<?>>> futures = new ArrayList<>();
+        for (Future<List<ScheduledFuture<?>>> result : results) {
+            futures.add(result.get());
+        }
+        long scheduled = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<Future<?>> cancels = new ArrayList<>();
+        for (List<ScheduledFuture<?>> list : futures) {
+            cancels.add(producers.submit(() -> list.forEach(future -> future.cancel(false))));
+        }
+        for (Future<?> cancel : cancels) {
+            cancel.get();
+        }
+        long cancelled = System.nanoTime() - start;
+        producers.shutdown();
+        System.out.printf("%-26s schedule %6.0f ns/op, cancel %6.0f ns/op (%d timeouts on %d threads)%n",
+                name + ":", scheduled / (double) TIMEOUTS, cancelled / (double) TIMEOUTS, TIMEOUTS, THREADS);
+    }
+
+    private static void accuracy(String name, TaskScheduler scheduler) throws InterruptedException {
+        LatencyHistogram lateness = new LatencyHistogram();
+        CountDownLatch fired = new CountDownLatch(TIMERS);
+        Random random = new Random(7);
+        for (int i = 0; i < TIMERS; i++) {
+            long delayNanos = Duration.ofMillis(10 + random.nextInt(490)).toNanos();
+            long deadline = System.nanoTime() + delayNanos;
+            scheduler.schedule(() -> {
+                lateness.record(System.nanoTime() - deadline);
+                fired.countDown();
+            }, Instant.now().plusNanos(delayNanos));
+        }
+        fired.await();
+        LatencyHistogram.Snapshot snapshot = lateness.snapshot();
+        System.out.printf("%-26s %d timers 10..500 ms late by p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", name + ":",
+                TIMERS, snapshot.percentile(50) / 1e6, snapshot.percentile(99) / 1e6, snapshot.max() / 1e6);
+    }
+
+    // The scheduler behind @Scheduled: SchedulerConfig hands it to the registrar, which drives cron and rates
+    private static void dropIn() throws Exception {
+        SchedulerConfig config = new SchedulerConfig();
+        ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+        config.configureTasks(registrar);
+        AtomicInteger cronRuns = new AtomicInteger();
+        AtomicInteger rateRuns = new AtomicInteger();
+        registrar.addCronTask(cronRuns::incrementAndGet, "*/1 * * * * *");
+        registrar.addFixedRateTask(rateRuns::incrementAndGet, Duration.ofMillis(100));
+        registrar.afterPropertiesSet();
+        Thread.sleep(3_000);
+        registrar.destroy();
+        System.out.printf("ScheduledTaskRegistrar on %s: cron every second ran %d times, 100 ms rate %d times in 3 s%n",
+                registrar.getScheduler().getClass().getSimpleName(), cronRuns.get(), rateRuns.get());
+        ((TimingWheelTaskScheduler) registrar.getScheduler()).close();
+    }
+}
@@ -0,0 +1,500 @@
+package org.alx.article._26_scheduling_async;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.ErrorHandler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+// TaskScheduler on a hierarchical hashed timing wheel, for millions of timeouts where the heap of a
+// ScheduledThreadPoolExecutor costs O(log n) per schedule and cancel under one lock.
+// - level 0 has wheelSize buckets of one tick each, every further level has wheelSize buckets spanning
+//   a whole rotation of the level below; a task goes into the lowest level whose current rotation holds its
+//   deadline, and moves down a level each time the level below starts the rotation of its bucket
+// - scheduling and cancelling only append to lock-free queues, a single ticker thread owns the wheel and
+//   drains them every tick, so both are O(1) for the caller and O(1) for the ticker (doubly linked buckets)
+// - due tasks are handed to a separate worker executor, a slow task never delays the ticker
+// Tasks run at most one tick late plus the worker queue wait, never early. A failing one-shot task fails its
+// future, failures of repeating tasks go to the ErrorHandler and the task keeps running, as with Spring's own
+// schedulers; an ErrorHandler that rethrows ends the repetition.
+public class TimingWheelTaskScheduler implements TaskScheduler, TaskExecutor, AutoCloseable {
+    private static final int WAITING = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+    private static final AtomicIntegerFieldUpdater<WheelTask> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(WheelTask.class, "state");
+
+    private final Executor workers;
+    private final long tickNanos;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final Bucket[][] wheels;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final long startNanos = System.nanoTime();
+    private final ConcurrentLinkedQueue<WheelTask> added = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<WheelTask> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    private volatile ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+    // Owned by the ticker thread
+    private long currentTick;
+
+    private static final class Bucket {
+        WheelTask head;
+        WheelTask tail;
+
+        void add(WheelTask task) {
+            task.bucket = this;
+            task.prev = tail;
+            if (tail == null) {
+                head = task;
+            } else {
+                tail.next = task;
+            }
+            tail = task;
+        }
+
+        void remove(WheelTask task) {
+            if (task.prev == null) {
+                head = task.next;
+            } else {
+                task.prev.next = task.next;
+            }
+            if (task.next == null) {
+                tail = task.prev;
+            } else {
+                task.next.prev = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+
+        // Empties the bucket, returns the former head; the tasks stay chained through next
+        WheelTask detachAll() {
+            WheelTask first = head;
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+
+    public TimingWheelTaskScheduler(Executor workers, Duration tick, int wheelSize, int levels) {
+        if (Integer.bitCount(wheelSize) != 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        if (levels < 1 || (long) levels * Integer.numberOfTrailingZeros(wheelSize) > 62) {
+            throw new IllegalArgumentException("levels must be between 1 and " + 62 / Integer.numberOfTrailingZeros(wheelSize));
+        }
+        this.workers = workers;
+        this.tickNanos = tick.toNanos();
+        this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+        this.wheelMask = wheelSize - 1;
+        this.wheels = new Bucket[levels][wheelSize];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheelSize; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.ticker = new Thread(this::tickLoop, "timing-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    // 512 buckets on 4 levels: with a 1 ms tick the wheel spans 2 years before tasks have to go round again
+    public TimingWheelTaskScheduler(Executor workers, Duration tick) {
+        this(workers, tick, 512, 4);
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        workers.execute(task);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+        long now = System.nanoTime();
+        return submit(new WheelTask(task, null, 0, false), toNanos(startTime, now), now);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        WheelTask wheelTask = new WheelTask(task, trigger, 0, false);
+        Instant first = trigger.nextExecution(wheelTask.triggerContext);
+        if (first == null) {
+            return null;
+        }
+        wheelTask.scheduledAt = first;
+        long now = System.nanoTime();
+        return submit(wheelTask, toNanos(first, now), now);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+        long now = System.nanoTime();
+        return submit(new WheelTask(task, null, positive(period), true), toNanos(startTime, now), now);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+        long now = System.nanoTime();
+        return submit(new WheelTask(task, null, positive(period), true), now, now);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+        long now = System.nanoTime();
+        return submit(new WheelTask(task, null, positive(delay), false), toNanos(startTime, now), now);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+        long now = System.nanoTime();
+        return submit(new WheelTask(task, null, positive(delay), false), now, now);
+    }
+
+    private WheelTask submit(WheelTask task, long deadlineNanos, long now) {
+        if (!running) {
+            throw new RejectedExecutionException("Scheduler is closed");
+        }
+        task.deadlineNanos = deadlineNanos;
+        task.deadlineTick = tickOf(deadlineNanos);
+        if (deadlineNanos - now <= 0) {
+            // Already due, no need to wait for the next tick
+            if (STATE.compareAndSet(task, WAITING, RUNNING)) {
+                handOff(task);
+            }
+        } else {
+            added.offer(task);
+            // close() may have drained the queue meanwhile
+            if (!running) {
+                task.cancel(false);
+            }
+        }
+        return task;
+    }
+
+    private void tickLoop() {
+        while (running) {
+            long target = (System.nanoTime() - startNanos) / tickNanos;
+            WheelTask task;
+            while ((task = added.poll()) != null) {
+                if (task.state == WAITING) {
+                    place(task);
+                }
+            }
+            while ((task = cancelled.poll()) != null) {
+                if (task.bucket != null) {
+                    task.bucket.remove(task);
+                }
+            }
+            while (currentTick < target) {
+                advance();
+            }
+            LockSupport.parkNanos(startNanos + (currentTick + 1) * tickNanos - System.nanoTime());
+        }
+    }
+
+    // Puts the task into the lowest level whose current rotation holds its deadline, or the top level
+    private void place(WheelTask task) {
+        long deadlineTick = task.deadlineTick;
+        if (deadlineTick <= currentTick) {
+            expire(task);
+            return;
+        }
+        int top = wheels.length - 1;
+        for (int level = 0; level <= top; level++) {
+            int shift = level * wheelBits;
+            if (level == top || deadlineTick >>> (shift + wheelBits) == currentTick >>> (shift + wheelBits)) {
+                wheels[level][(int) (deadlineTick >>> shift) & wheelMask].add(task);
+                return;
+            }
+        }
+    }
+
+    private void advance() {
+        currentTick++;
+        // When level 0 starts a new rotation the matching bucket of level 1 moves down, and so on upwards;
+        // higher levels first, they may fill the lower bucket that moves down at the same tick
+        int wrapped = 0;
+        while (wrapped + 1 < wheels.length && (currentTick & ((1L << (wrapped + 1) * wheelBits) - 1)) == 0) {
+            wrapped++;
+        }
+        for (int level = wrapped; level >= 1; level--) {
+            WheelTask task = wheels[level][(int) (currentTick >>> level * wheelBits) & wheelMask].detachAll();
+            while (task != null) {
+                WheelTask next = unlink(task);
+                place(task);
+                task = next;
+            }
+        }
+        WheelTask task = wheels[0][(int) currentTick & wheelMask].detachAll();
+        while (task != null) {
+            WheelTask next = unlink(task);
+            place(task);
+            task = next;
+        }
+    }
+
+    private static WheelTask unlink(WheelTask task) {
+        WheelTask next = task.next;
+        task.prev = null;
+        task.next = null;
+        task.bucket = null;
+        return next;
+    }
+
+    private void expire(WheelTask task) {
+        if (STATE.compareAndSet(task, WAITING, RUNNING)) {
+            handOff(task);
+        }
+    }
+
+    private void handOff(WheelTask task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.fail(e);
+        }
+    }
+
+    private long tickOf(long deadlineNanos) {
+        // Rounded up, a task never runs before its deadline
+        return Math.max(0, Math.ceilDiv(deadlineNanos - startNanos, tickNanos));
+    }
+
+    // Deadline on the System.nanoTime() scale of an instant of the clock
+    private long toNanos(Instant instant, long now) {
+        long nanos;
+        try {
+            nanos = Duration.between(clock.instant(), instant).toNanos();
+        } catch (ArithmeticException e) {
+            nanos = Long.MAX_VALUE / 4;
+        }
+        return now + Math.min(nanos, Long.MAX_VALUE / 4);
+    }
+
+    private static long positive(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Period must be positive: " + duration);
+        }
+        return duration.toNanos();
+    }
+
+    // Stops the ticker and cancels the tasks not yet due, so nobody waits on their futures forever;
+    // closes the worker executor if it can be closed
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+        try {
+            ticker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The ticker is gone, the wheel is ours now
+        WheelTask task;
+        while ((task = added.poll()) != null) {
+            task.cancel(false);
+        }
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                task = bucket.detachAll();
+                while (task != null) {
+                    WheelTask next = unlink(task);
+                    task.cancel(false);
+                    task = next;
+                }
+            }
+        }
+        cancelled.clear();
+        if (workers instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Can not close worker executor", e);
+            }
+        }
+    }
+
+    private final class WheelTask implements ScheduledFuture<Object>, Runnable {
+        private final Runnable task;
+        private final Trigger trigger;
+        private final SimpleTriggerContext triggerContext;
+        // 0 for a one-shot or trigger task
+        private final long periodNanos;
+        private final boolean fixedRate;
+        private volatile int state = WAITING;
+        private volatile long deadlineNanos;
+        private long deadlineTick;
+        private Instant scheduledAt;
+        private Throwable failure;
+        // Owned by the ticker thread
+        private Bucket bucket;
+        private WheelTask prev;
+        private WheelTask next;
+
+        WheelTask(Runnable task, Trigger trigger, long periodNanos, boolean fixedRate) {
+            this.task = task;
+            this.trigger = trigger;
+            this.triggerContext = trigger == null ? null : new SimpleTriggerContext(clock);
+            this.periodNanos = periodNanos;
+            this.fixedRate = fixedRate;
+        }
+
+        // On a worker thread
+        @Override
+        public void run() {
+            Instant actualStart = trigger == null ? null : clock.instant();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                if (trigger == null && periodNanos == 0) {
+                    fail(e);
+                    return;
+                }
+                try {
+                    errorHandler.handleError(e);
+                } catch (Throwable rethrown) {
+                    fail(rethrown);
+                    return;
+                }
+            }
+            if (trigger == null && periodNanos == 0) {
+                complete(DONE);
+                return;
+            }
+            long nextDeadline;
+            if (trigger != null) {
+                triggerContext.update(scheduledAt, actualStart, clock.instant());
+                Instant next = trigger.nextExecution(triggerContext);
+                if (next == null) {
+                    complete(DONE);
+                    return;
+                }
+                scheduledAt = next;
+                nextDeadline = toNanos(next, System.nanoTime());
+            } else {
+                nextDeadline = fixedRate ? deadlineNanos + periodNanos : System.nanoTime() + periodNanos;
+            }
+            deadlineNanos = nextDeadline;
+            deadlineTick = tickOf(nextDeadline);
+            // Cancelled while running: no next run
+            if (STATE.compareAndSet(this, RUNNING, WAITING)) {
+                added.offer(this);
+                // Closed meanwhile, close() may have drained the queue already
+                if (!running) {
+                    cancel(false);
+                }
+            }
+        }
+
+        void fail(Throwable e) {
+            failure = e;
+            complete(DONE);
+        }
+
+        private void complete(int finalState) {
+            if (STATE.compareAndSet(this, RUNNING, finalState)) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            int current;
+            while ((current = state) == WAITING || current == RUNNING) {
+                if (STATE.compareAndSet(this, current, CANCELLED)) {
+                    if (current == WAITING) {
+                        cancelled.offer(this);
+                    }
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public boolean isDone() {
+            return state >= DONE;
+        }
+
+        @Override
+        public synchronized Object get() throws InterruptedException, ExecutionException {
+            while (!isDone()) {
+                wait();
+            }
+            return result();
+        }
+
+        @Override
+        public synchronized Object get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isDone()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return result();
+        }
+
+        private Object result() throws ExecutionException {
+            if (state == CANCELLED) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return null;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.alx.article._26_scheduling_async;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Jobs per second for jobs that block for BLOCK_MILLIS, like a call to another service:
+// the jobExecutor pool of AsyncConfig against virtual threads with different concurrency caps.
+// Needs JDK 21; run with -Djdk.tracePinnedThreads=short to also get the pinned stacks from the JVM.
+public class VirtualThreadBenchmark {
+    private static final int JOBS = 10_000;
+    private static final long BLOCK_MILLIS = 20;
+
+    public static void main(String[] args) throws Exception {
+        try (PinnedThreadMonitor monitor = new PinnedThreadMonitor(Duration.ofMillis(5))) {
+            burstOnJobExecutor();
+
+            ThreadPoolTaskExecutor pool = newJobExecutor(Integer.MAX_VALUE);
+            run("platform pool, 20 threads", pool, JOBS, VirtualThreadBenchmark::blockingJob);
+            pool.shutdown();
+
+            for (int cap : new int[]{200, 1_000, 10_000}) {
+                try (VirtualThreadJobExecutor executor = new VirtualThreadJobExecutor("job-", cap)) {
+                    run("virtual threads, cap " + cap, executor, JOBS, VirtualThreadBenchmark::blockingJob);
+                }
+            }
+
+            // The same jobs blocking inside synchronized: on JDK 21 each one pins its carrier thread,
+            // so at most one job per carrier makes progress, whatever the cap; fewer jobs to keep the run short
+            Object[] monitors = new Object[1_000];
+            for (int i = 0; i < monitors.length; i++) {
+                monitors[i] = new Object();
+            }
+            AtomicInteger next = new AtomicInteger();
+            try (VirtualThreadJobExecutor executor = new VirtualThreadJobExecutor("job-", 1_000)) {
+                run("virtual threads, cap 1000, synchronized", executor, JOBS / 10, () -> {
+                    synchronized (monitors[next.getAndIncrement() % monitors.length]) {
+                        blockingJob();
+                    }
+                });
+            }
+
+            // JFR delivers events in chunks, give the stream a moment to catch up
+            Thread.sleep(2_000);
+            System.out.println("Pinned virtual threads reported: " + monitor.getPinnedCount());
+            for (Map.Entry<String, Long> site : monitor.topSites(3)) {
+                System.out.println("  " + site.getValue() + " at " + site.getKey());
+            }
+        }
+    }
+
+    // The pool as configured in AsyncConfig takes 20 running plus 30 queued jobs, a burst beyond that is rejected
+    private static void burstOnJobExecutor() {
+        ThreadPoolTaskExecutor executor = newJobExecutor(30);
+        int rejected = 0;
+        for (int i = 0; i < 1_000; i++) {
+            try {
+                executor.execute(VirtualThreadBenchmark::blockingJob);
+            } catch (RejectedExecutionException e) {
+                rejected++;
+            }
+        }
+        executor.shutdown();
+        System.out.printf("jobExecutor: burst of 1000 jobs, %d rejected%n", rejected);
+    }
+
+    private static ThreadPoolTaskExecutor newJobExecutor(int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // With an unbounded queue the pool never grows past its core size, so start with the maximum
+        executor.setCorePoolSize(queueCapacity == Integer.MAX_VALUE ? 20 : 10);
+        executor.setMaxPoolSize(20);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("jobExecutor-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    private static void run(String name, Executor executor, int jobs, Runnable job) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(jobs);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    job.run();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-42s %8.0f jobs/s, peak concurrency %d%n", name + ":", jobs / seconds, peak.get());
+    }
+
+    private static void blockingJob() {
+        try {
+            Thread.sleep(BLOCK_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
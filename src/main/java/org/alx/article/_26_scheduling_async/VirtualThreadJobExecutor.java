@@ -0,0 +1,78 @@
+package org.alx.article._26_scheduling_async;
+
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// One virtual thread per job, for jobs that spend their time in blocking I/O:
+// - there is no pool and no queue to fill up, a blocked virtual thread only costs its stack on the heap
+// - maxConcurrency caps how many jobs run at the same time, so a burst of jobs does not become a burst of
+//   requests to the systems they call; the cap is taken inside the virtual thread, a job over the cap
+//   waits there and the caller is never blocked or rejected
+public class VirtualThreadJobExecutor implements TaskExecutor, AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+
+    public VirtualThreadJobExecutor(String threadNamePrefix, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            waiting.incrementAndGet();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Interrupted by shutdown before the job could start
+                waiting.decrementAndGet();
+                return;
+            }
+            waiting.decrementAndGet();
+            running.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+                permits.release();
+                completed.increment();
+            }
+        });
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    // Jobs already submitted that wait for a permit
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    // Waits for all submitted jobs to finish
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,21 @@
+package org.alx.article._27_synchronization_java;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// A sampled critical section of a profiled lock; the event duration is the hold time
+@Name("org.alx.article.LockHold")
+@Label("Lock Hold")
+@Category({"Application", "Locks"})
+@Description("Time a profiled lock was held, for sampled acquisitions")
+@Threshold("100 us")
+@StackTrace(false)
+class LockHoldEvent extends Event {
+    @Label("Lock")
+    String lockName;
+}
@@ -0,0 +1,159 @@
+package org.alx.article._27_synchronization_java;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class LockProfilerExample {
+    private static final int ITERATIONS = 20_000_000;
+
+    private static long counter;
+
+    public static void main(String[] args) throws Exception {
+        overhead();
+        contention();
+    }
+
+    // Uncontended lock/unlock on one thread: the price of leaving the wrappers in production code
+    private static void overhead() {
+        LockProfiler profiler = new LockProfiler(100, false);
+        ReentrantLock plain = new ReentrantLock();
+        ProfiledLock profiled = new ProfiledLock("overhead", profiler);
+        Object monitor = new Object();
+        ProfiledMonitor profiledMonitor = new ProfiledMonitor("overhead-monitor", monitor, profiler);
+        Runnable increment = () -> counter++;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                plain.lock();
+                try {
+                    counter++;
+                } finally {
+                    plain.unlock();
+                }
+            }
+            double plainNanos = perIteration(start);
+
+            profiler.disable();
+            double disabledNanos = lockLoop(profiled);
+            profiler.enable();
+            double enabledNanos = lockLoop(profiled);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                synchronized (monitor) {
+                    counter++;
+                }
+            }
+            double synchronizedNanos = perIteration(start);
+            profiler.disable();
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                profiledMonitor.run(increment);
+            }
+            double monitorDisabledNanos = perIteration(start);
+            profiler.enable();
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                profiledMonitor.run(increment);
+            }
+            double monitorEnabledNanos = perIteration(start);
+
+            System.out.printf("Round %d: ReentrantLock %.1f ns, ProfiledLock disabled %.1f ns, enabled %.1f ns; "
+                            + "synchronized %.1f ns, ProfiledMonitor disabled %.1f ns, enabled %.1f ns%n",
+                    round + 1, plainNanos, disabledNanos, enabledNanos,
+                    synchronizedNanos, monitorDisabledNanos, monitorEnabledNanos);
+        }
+    }
+
+    private static double lockLoop(ProfiledLock lock) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            lock.lock();
+            try {
+                counter++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return perIteration(start);
+    }
+
+    private static double perIteration(long start) {
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+
+    // Two code paths share the inventory lock, one of them holds it ten times longer; a cache monitor on the side.
+    // The report names the lock and the call sites to look at, the JFR recording has the same waits as events.
+    private static void contention() throws Exception {
+        LockProfiler profiler = new LockProfiler(100, true);
+        ProfiledLock inventory = new ProfiledLock("inventory", profiler);
+        ProfiledMonitor cache = new ProfiledMonitor("cache", new Object(), profiler);
+
+        Path file = Files.createTempFile("locks", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(LockWaitEvent.class).withThreshold(Duration.ofMillis(1));
+            recording.enable(LockHoldEvent.class).withThreshold(Duration.ofMillis(1));
+            recording.start();
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int t = 0; t < 8; t++) {
+                boolean auditor = t % 4 == 0;
+                executor.execute(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        if (auditor) {
+                            audit(inventory);
+                        } else {
+                            reserve(inventory);
+                        }
+                        cache.run(() -> counter++);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        for (LockProfiler.LockReport report : profiler.report(3)) {
+            System.out.println(report);
+        }
+        Map<String, Integer> events = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            events.merge(event.getEventType().getName() + " " + event.getString("lockName"), 1, Integer::sum);
+        }
+        System.out.println("JFR events over 1 ms: " + events);
+        Files.delete(file);
+    }
+
+    private static void reserve(ProfiledLock inventory) {
+        inventory.lock();
+        try {
+            LockSupport.parkNanos(100_000);
+        } finally {
+            inventory.unlock();
+        }
+    }
+
+    private static void audit(ProfiledLock inventory) {
+        inventory.lock();
+        try {
+            LockSupport.parkNanos(1_000_000);
+        } finally {
+            inventory.unlock();
+        }
+    }
+}
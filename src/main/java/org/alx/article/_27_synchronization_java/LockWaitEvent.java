@@ -0,0 +1,21 @@
+package org.alx.article._27_synchronization_java;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// A thread waited for a profiled lock; the event duration is the wait, the stack trace is the contending call site
+@Name("org.alx.article.LockWait")
+@Label("Lock Wait")
+@Category({"Application", "Locks"})
+@Description("Time a thread waited to acquire a profiled lock")
+@Threshold("10 us")
+@StackTrace
+class LockWaitEvent extends Event {
+    @Label("Lock")
+    String lockName;
+}
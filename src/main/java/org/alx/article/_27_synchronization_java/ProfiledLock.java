@@ -0,0 +1,159 @@
+package org.alx.article._27_synchronization_java;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Non-fair ReentrantLock that reports wait and hold times to a LockProfiler under its name.
+// An acquisition first tries the lock without blocking: when that works it was not contended and is only timed
+// when sampled, otherwise the wait is always timed, its call site recorded and a LockWaitEvent emitted.
+// Hold time is measured for the outermost acquisition of a timed one, from acquire to the matching unlock.
+// A tryLock with a timeout that gives up still records its wait and emits its LockWaitEvent.
+public class ProfiledLock implements Lock {
+    private final ReentrantLock delegate = new ReentrantLock();
+    private final String name;
+    private final LockProfiler profiler;
+    private final LockProfiler.LockStats stats;
+    // Written and read by the owner only, the lock itself orders the accesses
+    private long holdStartNanos;
+    private LockHoldEvent holdEvent;
+
+    public ProfiledLock(String name, LockProfiler profiler) {
+        this.name = name;
+        this.profiler = profiler;
+        this.stats = profiler.statsFor(name);
+    }
+
+    public ProfiledLock(String name) {
+        this(name, LockProfiler.global());
+    }
+
+    @Override
+    public void lock() {
+        if (!profiler.isEnabled()) {
+            delegate.lock();
+            return;
+        }
+        if (delegate.tryLock()) {
+            acquired(0, false);
+            return;
+        }
+        profiler.recordCallSite(stats);
+        LockWaitEvent event = new LockWaitEvent();
+        event.begin();
+        long start = System.nanoTime();
+        delegate.lock();
+        long waited = System.nanoTime() - start;
+        commit(event);
+        acquired(waited, true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (!profiler.isEnabled()) {
+            delegate.lockInterruptibly();
+            return;
+        }
+        if (delegate.tryLock()) {
+            acquired(0, false);
+            return;
+        }
+        profiler.recordCallSite(stats);
+        LockWaitEvent event = new LockWaitEvent();
+        event.begin();
+        long start = System.nanoTime();
+        delegate.lockInterruptibly();
+        long waited = System.nanoTime() - start;
+        commit(event);
+        acquired(waited, true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!delegate.tryLock()) {
+            return false;
+        }
+        if (profiler.isEnabled()) {
+            acquired(0, false);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (!profiler.isEnabled()) {
+            return delegate.tryLock(time, unit);
+        }
+        if (delegate.tryLock()) {
+            acquired(0, false);
+            return true;
+        }
+        profiler.recordCallSite(stats);
+        LockWaitEvent event = new LockWaitEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean locked = delegate.tryLock(time, unit);
+        long waited = System.nanoTime() - start;
+        commit(event);
+        if (!locked) {
+            // A timed-out wait is still contention worth seeing, it just holds nothing afterwards
+            stats.wait.record(waited);
+            return false;
+        }
+        acquired(waited, true);
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        if (holdStartNanos != 0 && delegate.getHoldCount() == 1) {
+            stats.hold.record(System.nanoTime() - holdStartNanos);
+            holdStartNanos = 0;
+            if (holdEvent != null) {
+                holdEvent.end();
+                if (holdEvent.shouldCommit()) {
+                    holdEvent.commit();
+                }
+                holdEvent = null;
+            }
+        }
+        delegate.unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void acquired(long waited, boolean contended) {
+        stats.acquisitions.increment();
+        if (contended) {
+            stats.contended.increment();
+        }
+        // Reentrant acquisitions are neither waits nor new critical sections
+        if (delegate.getHoldCount() != 1 || !(contended || profiler.sample())) {
+            return;
+        }
+        stats.wait.record(waited);
+        LockHoldEvent event = new LockHoldEvent();
+        if (event.isEnabled()) {
+            event.lockName = name;
+            event.begin();
+            holdEvent = event;
+        }
+        holdStartNanos = System.nanoTime();
+    }
+
+    private void commit(LockWaitEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.lockName = name;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.alx.article._27_synchronization_java;
+
+import java.util.function.Supplier;
+
+// synchronized sections with the same reports as ProfiledLock. A monitor can not be tried without blocking,
+// so only sampled entries are timed, and a sampled entry counts as contended when it waited longer than
+// CONTENDED_NANOS; contended counts and call sites are therefore sampled too, unlike ProfiledLock's.
+// The monitor object can be shared with plain synchronized blocks, e.g. new ProfiledMonitor("cache", this).
+public class ProfiledMonitor {
+    private static final long CONTENDED_NANOS = 10_000;
+
+    private final String name;
+    private final Object monitor;
+    private final LockProfiler profiler;
+    private final LockProfiler.LockStats stats;
+
+    public ProfiledMonitor(String name, Object monitor, LockProfiler profiler) {
+        this.name = name;
+        this.monitor = monitor;
+        this.profiler = profiler;
+        this.stats = profiler.statsFor(name);
+    }
+
+    public ProfiledMonitor(String name, Object monitor) {
+        this(name, monitor, LockProfiler.global());
+    }
+
+    public void run(Runnable section) {
+        call(() -> {
+            section.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> section) {
+        if (!profiler.isEnabled()) {
+            synchronized (monitor) {
+                return section.get();
+            }
+        }
+        stats.acquisitions.increment();
+        if (!profiler.sample()) {
+            synchronized (monitor) {
+                return section.get();
+            }
+        }
+        LockWaitEvent waitEvent = new LockWaitEvent();
+        waitEvent.begin();
+        long start = System.nanoTime();
+        long waited;
+        T result;
+        synchronized (monitor) {
+            long acquired = System.nanoTime();
+            waited = acquired - start;
+            waitEvent.end();
+            LockHoldEvent holdEvent = new LockHoldEvent();
+            holdEvent.begin();
+            try {
+                result = section.get();
+            } finally {
+                stats.hold.record(System.nanoTime() - acquired);
+                holdEvent.end();
+                if (holdEvent.shouldCommit()) {
+                    holdEvent.lockName = name;
+                    holdEvent.commit();
+                }
+            }
+        }
+        // Outside the monitor, so the bookkeeping does not hold up the next thread
+        stats.wait.record(waited);
+        if (waitEvent.shouldCommit()) {
+            waitEvent.lockName = name;
+            waitEvent.commit();
+        }
+        if (waited > CONTENDED_NANOS) {
+            stats.contended.increment();
+            profiler.recordCallSite(stats);
+        }
+        return result;
+    }
+}
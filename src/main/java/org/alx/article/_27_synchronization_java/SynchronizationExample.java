@@ -3,7 +3,7 @@ package org.alx.article._27_synchronization_java;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-public class SynchronizationExample {
+public final class SynchronizationExample {
     public synchronized void synchronizedMethod() {
         // Synchronized method body
     }
@@ -41,4 +41,27 @@ public class SynchronizationExample {
 
         // Non-synchronized code
     }
+
+    // The same sections, measured by LockProfiler.global() when started with -Dlock.profiler.enabled=true
+    private final Lock profiledLock = new ProfiledLock("SynchronizationExample.lock");
+    private final ProfiledMonitor profiledMonitor = new ProfiledMonitor("SynchronizationExample.this", this);
+
+    public void synchronizedMethodWithProfiledLock() {
+        profiledLock.lock(); // Acquire the lock, timed when contended or sampled
+        try {
+            // Synchronized method body
+        } finally {
+            profiledLock.unlock(); // Release the lock, ends the measured hold time
+        }
+    }
+
+    public void someMethodWithProfiledMonitor() {
+        // Non-synchronized code
+
+        profiledMonitor.run(() -> {
+            // Synchronized code block, same monitor as synchronized (this)
+        });
+
+        // Non-synchronized code
+    }
 }
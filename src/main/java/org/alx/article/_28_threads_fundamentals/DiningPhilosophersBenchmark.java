@@ -0,0 +1,117 @@
+package org.alx.article._28_threads_fundamentals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Meals per second of N philosophers around N forks: the DiningPhilosophers algorithm (N-1 may reach for forks,
+// left fork then right fork) against the three modes of MultiResourceManager, from 5 to 1000 philosophers.
+// Philosophers think up to THINK_NANOS and eat for EAT_NANOS; every meal checks nobody else holds its forks.
+public class DiningPhilosophersBenchmark {
+    private static final int[] SIZES = {5, 50, 200, 1_000};
+    private static final long RUN_MILLIS = 2_000;
+    private static final long THINK_NANOS = 200_000;
+    private static final long EAT_NANOS = 100_000;
+
+    private interface Table {
+        void eat(int philosopher, Runnable meal) throws InterruptedException;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-8s %14s %14s %14s %14s%n", "N", "semaphore N-1", "ORDERED", "BACKOFF", "ARBITER");
+        for (int n : SIZES) {
+            double semaphore = run(n, semaphoreTable(n));
+            double ordered = run(n, managerTable(new MultiResourceManager(n, MultiResourceManager.Mode.ORDERED)));
+            double backoff = run(n, managerTable(new MultiResourceManager(n, MultiResourceManager.Mode.BACKOFF)));
+            double arbiter = run(n, managerTable(new MultiResourceManager(n, MultiResourceManager.Mode.ARBITER)));
+            System.out.printf("%-8d %14.0f %14.0f %14.0f %14.0f  meals/s%n", n, semaphore, ordered, backoff, arbiter);
+        }
+    }
+
+    // The algorithm of DiningPhilosophers.eat for any number of philosophers
+    private static Table semaphoreTable(int n) {
+        Semaphore dining = new Semaphore(n - 1);
+        Semaphore[] forks = new Semaphore[n];
+        for (int i = 0; i < n; i++) {
+            forks[i] = new Semaphore(1);
+        }
+        return (philosopher, meal) -> {
+            dining.acquire();
+            try {
+                forks[philosopher].acquire();
+                try {
+                    forks[(philosopher + 1) % n].acquire();
+                    try {
+                        meal.run();
+                    } finally {
+                        forks[(philosopher + 1) % n].release();
+                    }
+                } finally {
+                    forks[philosopher].release();
+                }
+            } finally {
+                dining.release();
+            }
+        };
+    }
+
+    private static Table managerTable(MultiResourceManager manager) {
+        int n = manager.size();
+        return (philosopher, meal) -> {
+            MultiResourceManager.Held forks = manager.acquire(philosopher, (philosopher + 1) % n);
+            try {
+                meal.run();
+            } finally {
+                forks.close();
+            }
+        };
+    }
+
+    private static double run(int n, Table table) throws InterruptedException {
+        AtomicIntegerArray forkOwners = new AtomicIntegerArray(n);
+        LongAdder meals = new LongAdder();
+        List<Thread> philosophers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int philosopher = i;
+            int left = i;
+            int right = (i + 1) % n;
+            Runnable meal = () -> {
+                // Owners are stored as id + 1, 0 means the fork is on the table
+                if (!forkOwners.compareAndSet(left, 0, philosopher + 1) || !forkOwners.compareAndSet(right, 0, philosopher + 1)) {
+                    throw new IllegalStateException("Philosopher " + philosopher + " shares a fork");
+                }
+                LockSupport.parkNanos(EAT_NANOS);
+                forkOwners.set(right, 0);
+                forkOwners.set(left, 0);
+                meals.increment();
+            };
+            Thread thread = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(THINK_NANOS));
+                        table.eat(philosopher, meal);
+                    }
+                } catch (InterruptedException e) {
+                    // Dinner is over
+                }
+            });
+            philosophers.add(thread);
+        }
+        philosophers.forEach(Thread::start);
+        Thread.sleep(RUN_MILLIS / 4);
+        long start = System.nanoTime();
+        long before = meals.sum();
+        Thread.sleep(RUN_MILLIS);
+        long eaten = meals.sum() - before;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        philosophers.forEach(Thread::interrupt);
+        for (Thread thread : philosophers) {
+            thread.join();
+        }
+        return eaten / seconds;
+    }
+}
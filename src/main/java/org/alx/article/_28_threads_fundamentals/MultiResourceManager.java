@@ -0,0 +1,201 @@
+package org.alx.article._28_threads_fundamentals;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Takes any set of resources as a whole, without deadlock, generalizing the forks of DiningPhilosophers.
+// DiningPhilosophers lets at most N-1 philosophers reach for forks, which breaks the cycle but also keeps
+// a philosopher waiting even when both of his forks are free. The modes here never need such a cap:
+// - ORDERED: resources are taken in ascending id order, blocking on each; no cycle can form, but a thread
+//   holds its lower resources while it waits for a higher one, so waits chain up
+// - BACKOFF: the same order, but only the first resource is waited for, holding nothing; the rest are
+//   tried, and on a busy one everything is released and the thread waits on the busy one first, backing off
+//   for a random time when it keeps colliding; nobody ever waits while holding a resource
+// - ARBITER: one central lock hands out whole sets when all their resources are free; simple and fair,
+//   but every acquire and release goes through the same lock and wakes all waiters
+public class MultiResourceManager {
+    private static final long MIN_BACKOFF_NANOS = 1_000;
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+    private static final long YIELD_BELOW_NANOS = 50_000;
+
+    public enum Mode {
+        ORDERED, BACKOFF, ARBITER
+    }
+
+    private final Mode mode;
+    private final Semaphore[] resources;
+    // ARBITER mode only
+    private final boolean[] busy;
+    private final ReentrantLock arbiter = new ReentrantLock();
+    private final Condition released = arbiter.newCondition();
+
+    // Resources acquired together, closing releases them
+    public final class Held implements AutoCloseable {
+        private final int[] ids;
+        private boolean closed;
+
+        private Held(int[] ids) {
+            this.ids = ids;
+        }
+
+        public int[] ids() {
+            return ids.clone();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(ids);
+            }
+        }
+    }
+
+    public MultiResourceManager(int resourceCount, Mode mode) {
+        this.mode = mode;
+        this.resources = new Semaphore[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            resources[i] = new Semaphore(1);
+        }
+        this.busy = new boolean[resourceCount];
+    }
+
+    public int size() {
+        return resources.length;
+    }
+
+    // Blocks until all the resources are held by the caller; duplicates are taken once
+    public Held acquire(int... resourceIds) throws InterruptedException {
+        int[] ids = sortedDistinct(resourceIds);
+        if (ids.length == 0) {
+            return new Held(ids);
+        }
+        switch (mode) {
+            case ORDERED -> acquireOrdered(ids);
+            case BACKOFF -> acquireWithBackoff(ids);
+            case ARBITER -> acquireFromArbiter(ids);
+        }
+        return new Held(ids);
+    }
+
+    private void acquireOrdered(int[] ids) throws InterruptedException {
+        for (int i = 0; i < ids.length; i++) {
+            try {
+                resources[ids[i]].acquire();
+            } catch (InterruptedException e) {
+                releaseFirst(ids, i);
+                throw e;
+            }
+        }
+    }
+
+    private void acquireWithBackoff(int[] ids) throws InterruptedException {
+        // Index of the resource to wait for, holding nothing: the first one, later the one found busy
+        int waitFor = 0;
+        for (int attempt = 0; ; attempt++) {
+            resources[ids[waitFor]].acquire();
+            int busyIndex = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (i != waitFor && !resources[ids[i]].tryAcquire()) {
+                    busyIndex = i;
+                    break;
+                }
+            }
+            if (busyIndex < 0) {
+                return;
+            }
+            // Release what we took in this attempt: waitFor and everything tried before busyIndex
+            resources[ids[waitFor]].release();
+            for (int i = 0; i < busyIndex; i++) {
+                if (i != waitFor) {
+                    resources[ids[i]].release();
+                }
+            }
+            waitFor = busyIndex;
+            backOff(attempt);
+        }
+    }
+
+    // The first collision needs no extra pause, waiting on the busy resource is the pause. After that a random
+    // wait in [0, min(MAX, MIN * 2^attempt)), so threads that keep colliding stop doing it in lockstep; short
+    // waits yield, parking the thread would sleep for the timer slack of the OS, tens of microseconds
+    private static void backOff(int attempt) throws InterruptedException {
+        if (attempt == 0) {
+            return;
+        }
+        long bound = Math.min(MAX_BACKOFF_NANOS, MIN_BACKOFF_NANOS << Math.min(attempt, 20));
+        long pause = ThreadLocalRandom.current().nextLong(bound);
+        if (pause < YIELD_BELOW_NANOS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(pause);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private void acquireFromArbiter(int[] ids) throws InterruptedException {
+        arbiter.lockInterruptibly();
+        try {
+            while (anyBusy(ids)) {
+                released.await();
+            }
+            for (int id : ids) {
+                busy[id] = true;
+            }
+        } finally {
+            arbiter.unlock();
+        }
+    }
+
+    private boolean anyBusy(int[] ids) {
+        for (int id : ids) {
+            if (busy[id]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(int[] ids) {
+        if (mode == Mode.ARBITER) {
+            arbiter.lock();
+            try {
+                for (int id : ids) {
+                    busy[id] = false;
+                }
+                released.signalAll();
+            } finally {
+                arbiter.unlock();
+            }
+        } else {
+            releaseFirst(ids, ids.length);
+        }
+    }
+
+    private void releaseFirst(int[] ids, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            resources[ids[i]].release();
+        }
+    }
+
+    private int[] sortedDistinct(int[] resourceIds) {
+        int[] ids = resourceIds.clone();
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] < 0 || ids[i] >= resources.length) {
+                throw new IllegalArgumentException("No resource " + ids[i] + ", there are " + resources.length);
+            }
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+}
@@ -1,10 +1,9 @@
 package org.alx.article._2_disjoint_set_data_structure;
 
-import java.util.HashMap;
-import java.util.Map;
+import org.alx.article._42_choosing_the_right_collection_in_java.IntObjectHashMap;
 
 public class DisjointSetExample {
-    private Map<Integer, Node> map = new HashMap<>();
+    private IntObjectHashMap<Node> map = new IntObjectHashMap<>();
 
     public void makeSet(int data) {
         Node node = new Node(data);
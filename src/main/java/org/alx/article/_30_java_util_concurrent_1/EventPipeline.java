@@ -0,0 +1,275 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.lang.System.Logger.Level;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Multi-stage pipeline on one ring of pre-allocated, mutable events (the LMAX Disruptor design).
+// Instead of a queue between every two stages, each with its own lock handoff and its own copy of the item,
+// all stages work in place on the same slot: a stage only looks at a sequence once every handler of the stage
+// before it has moved past it, and a publisher only reuses a slot once every handler of the last stage has.
+// Each handler publishes how far it got in its own padded sequence, and that is all the coordination there is.
+// A stage can have several handlers, each taking the events whose key falls into its shard, so events of one
+// key stay in order. Handlers see events in batches - everything available when they look - and get
+// onBatchEnd() after each batch they handled events in, the place to commit a group of writes at once.
+//
+//     pipeline = new EventPipeline<>(1024, Order::new, WaitStrategy.YIELD)
+//             .then("decode", decoder)
+//             .then("enrich", 4, Order::accountId, shard -> new Enricher())
+//             .then("persist", writer)
+//             .start();
+//     pipeline.publish((order, line) -> order.line = line, line);
+public class EventPipeline<E> implements AutoCloseable {
+    private final Object[] events;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    // Next sequence to hand out to a publisher
+    private final AtomicLong claimed = new AtomicLong();
+    // Sequence published into each slot, -1 before the first
+    private final AtomicLongArray published;
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final LongAdder failures = new LongAdder();
+    private volatile ExceptionHandler exceptionHandler = EventPipeline::log;
+    private volatile boolean running;
+    private AtomicLongArray progress;
+
+    public interface Handler<E> {
+        void onEvent(E event, long sequence) throws Exception;
+
+        // After the last event of a batch this handler handled
+        default void onBatchEnd() throws Exception {
+        }
+    }
+
+    // Told about every handler failure on the handler's own thread; sequence is -1 for a failed onBatchEnd()
+    public interface ExceptionHandler {
+        void onException(String stage, long sequence, Throwable e);
+    }
+
+    public EventPipeline(int capacity, Supplier<E> eventFactory, WaitStrategy waitStrategy) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.events = new Object[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            events[i] = eventFactory.get();
+            published.set(i, -1);
+        }
+    }
+
+    public EventPipeline<E> then(String name, Handler<E> handler) {
+        return then(name, 1, event -> 0, shard -> handler);
+    }
+
+    // shards handlers, handler i gets the events with floorMod(key, shards) == i
+    public EventPipeline<E> then(String name, int shards, ToLongFunction<E> key, IntFunction<Handler<E>> handlers) {
+        if (running || progress != null) {
+            throw new IllegalStateException("Pipeline is already started");
+        }
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        }
+        int first = stages.isEmpty() ? 0 : stages.getLast().first + stages.getLast().handlers.size();
+        Stage stage = new Stage(name, first, stages.isEmpty() ? null : stages.getLast(), key);
+        for (int i = 0; i < shards; i++) {
+            stage.handlers.add(handlers.apply(i));
+        }
+        stages.add(stage);
+        return this;
+    }
+
+    // Replaces the default handler, which logs the failure at WARNING
+    public EventPipeline<E> onException(ExceptionHandler exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+        return this;
+    }
+
+    public EventPipeline<E> start() {
+        if (stages.isEmpty()) {
+            throw new IllegalStateException("Pipeline has no stages");
+        }
+        Stage last = stages.getLast();
+        progress = new AtomicLongArray((last.first + last.handlers.size() + 1) * RingBuffer.STRIDE);
+        running = true;
+        for (Stage stage : stages) {
+            for (int shard = 0; shard < stage.handlers.size(); shard++) {
+                int handler = shard;
+                Thread thread = new Thread(() -> stage.run(handler), "pipeline-" + stage.name + "-" + shard);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+        }
+        return this;
+    }
+
+    // Waits for the next slot to be free of the last stage, claims it and lets the translator fill in the event
+    // in place; the event keeps whatever the previous round left in fields the translator does not set.
+    // The slot is claimed only once it is free, so a publisher interrupted while waiting leaves no gap behind.
+    public <A> long publish(BiConsumer<E, A> translator, A argument) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Pipeline is not running");
+        }
+        Stage last = stages.getLast();
+        long sequence;
+        for (int attempt = 0; ; attempt++) {
+            sequence = claimed.get();
+            if (sequence - events.length < last.minimumProgress()) {
+                if (claimed.compareAndSet(sequence, sequence + 1)) {
+                    break;
+                }
+            } else {
+                idle(attempt);
+            }
+        }
+        try {
+            translator.accept(event(sequence), argument);
+        } finally {
+            // The sequence is claimed either way: leaving it unpublished would stall every stage behind it,
+            // so a failed translation goes down the pipeline with whatever the translator left in the event
+            published.setRelease((int) sequence & mask, sequence);
+        }
+        return sequence;
+    }
+
+    // Events that failed in some handler; the event still moves on to the next stage
+    public long failures() {
+        return failures.sum();
+    }
+
+    // Waits until every published event went through the last stage, then stops the handler threads.
+    // When interrupted it stops the handlers without draining and returns with the interrupt flag set.
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        try {
+            long end = claimed.get();
+            for (int attempt = 0; stages.getLast().minimumProgress() < end; attempt++) {
+                idle(attempt);
+            }
+            running = false;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void log(String stage, long sequence, Throwable e) {
+        System.getLogger(EventPipeline.class.getName()).log(Level.WARNING,
+                sequence < 0 ? "Pipeline stage " + stage + " failed at batch end"
+                        : "Pipeline stage " + stage + " failed on " + sequence, e);
+    }
+
+    private void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        waitStrategy.idle(attempt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E event(long sequence) {
+        return (E) events[(int) sequence & mask];
+    }
+
+    private final class Stage {
+        private final String name;
+        // Index of the first handler of this stage in progress, in strides
+        private final int first;
+        private final Stage previous;
+        private final ToLongFunction<E> key;
+        private final List<Handler<E>> handlers = new ArrayList<>();
+
+        Stage(String name, int first, Stage previous, ToLongFunction<E> key) {
+            this.name = name;
+            this.first = first;
+            this.previous = previous;
+            this.key = key;
+        }
+
+        // Sequences below this are done by every handler of the stage
+        long minimumProgress() {
+            long minimum = Long.MAX_VALUE;
+            for (int i = 0; i < handlers.size(); i++) {
+                minimum = Math.min(minimum, progress.getAcquire((first + i + 1) * RingBuffer.STRIDE));
+            }
+            return minimum;
+        }
+
+        // Sequences below the returned one can be processed by this stage, from next on
+        private long available(long next) {
+            if (previous != null) {
+                return previous.minimumProgress();
+            }
+            long sequence = next;
+            while (published.getAcquire((int) sequence & mask) == sequence) {
+                sequence++;
+            }
+            return sequence;
+        }
+
+        void run(int shard) {
+            Handler<E> handler = handlers.get(shard);
+            int slot = (first + shard + 1) * RingBuffer.STRIDE;
+            int shards = handlers.size();
+            long next = 0;
+            int attempt = 0;
+            while (true) {
+                long available = available(next);
+                if (available <= next) {
+                    if (!running) {
+                        return;
+                    }
+                    try {
+                        idle(attempt++);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    continue;
+                }
+                attempt = 0;
+                boolean handled = false;
+                for (long sequence = next; sequence < available; sequence++) {
+                    E event = event(sequence);
+                    // Errors are caught too: a handler thread that dies never moves its progress again,
+                    // and every stage and publisher behind it would wait forever
+                    try {
+                        if (shards == 1 || Math.floorMod(key.applyAsLong(event), shards) == shard) {
+                            handled = true;
+                            handler.onEvent(event, sequence);
+                        }
+                    } catch (Throwable e) {
+                        failures.increment();
+                        exceptionHandler.onException(name, sequence, e);
+                    }
+                }
+                if (handled) {
+                    try {
+                        handler.onBatchEnd();
+                    } catch (Throwable e) {
+                        failures.increment();
+                        exceptionHandler.onException(name, -1, e);
+                    }
+                }
+                progress.setRelease(slot, available);
+                next = available;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Payment lines go through decode -> enrich -> persist, first as threads chained by queues, the way the
+// consumers of ConditionProducerConsumerExample would be chained, then on an EventPipeline:
+// - queues: every stage takes an object, builds the next one and puts it into the next queue
+// - pipeline: every stage fills in fields of the same pre-allocated Payment; enrich runs in ENRICH_SHARDS
+//   handlers sharded by account, and persist applies its writes per batch, as a group commit
+// Both must end with the same balances.
+public class EventPipelineExample {
+    private static final int ITEMS = Integer.getInteger("items", 1_000_000);
+    private static final int ACCOUNTS = 1_000;
+    private static final int CAPACITY = 1024;
+    private static final int ENRICH_SHARDS = 2;
+
+    private static final String[] LINES = new String[ITEMS];
+
+    static {
+        for (int i = 0; i < ITEMS; i++) {
+            LINES[i] = (i * 7919L % ACCOUNTS) + "," + (100 + i % 10_000);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d cores, %d payments, %d accounts%n",
+                Runtime.getRuntime().availableProcessors(), ITEMS, ACCOUNTS);
+        queues(ITEMS / 4);
+        pipeline(ITEMS / 4);
+        long[] expected = queues(ITEMS);
+        long[] actual = pipeline(ITEMS);
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException("Pipeline balances differ from the queue chain");
+        }
+        System.out.println("Balances match");
+    }
+
+    // The event: decode sets account and cents, enrich sets fee, persist reads them
+    static final class Payment {
+        String line;
+        int account;
+        long cents;
+        long fee;
+    }
+
+    private record Decoded(int account, long cents) {
+    }
+
+    private record Enriched(int account, long cents, long fee) {
+    }
+
+    private static int accountOf(String line) {
+        return Integer.parseInt(line, 0, line.indexOf(','), 10);
+    }
+
+    private static long centsOf(String line) {
+        return Long.parseLong(line, line.indexOf(',') + 1, line.length(), 10);
+    }
+
+    // 0.5 % to 2 % depending on the account
+    private static long feeOf(int account, long cents) {
+        return cents * (5 + account % 16) / 1_000;
+    }
+
+    private static long[] queues(int items) throws InterruptedException {
+        BlockingQueue<String> lines = new ArrayBlockingQueue<>(CAPACITY);
+        BlockingQueue<Decoded> decoded = new ArrayBlockingQueue<>(CAPACITY);
+        BlockingQueue<Enriched> enriched = new ArrayBlockingQueue<>(CAPACITY);
+        long[] balances = new long[ACCOUNTS];
+        long[] commits = new long[1];
+
+        Thread decode = new Thread(() -> {
+            try {
+                for (int i = 0; i < items; i++) {
+                    String line = lines.take();
+                    decoded.put(new Decoded(accountOf(line), centsOf(line)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread enrich = new Thread(() -> {
+            try {
+                for (int i = 0; i < items; i++) {
+                    Decoded payment = decoded.take();
+                    enriched.put(new Enriched(payment.account(), payment.cents(), feeOf(payment.account(), payment.cents())));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread persist = new Thread(() -> {
+            List<Enriched> batch = new ArrayList<>(CAPACITY);
+            try {
+                for (int received = 0; received < items; ) {
+                    batch.add(enriched.take());
+                    enriched.drainTo(batch, CAPACITY - 1);
+                    for (Enriched payment : batch) {
+                        balances[payment.account()] += payment.cents() - payment.fee();
+                    }
+                    received += batch.size();
+                    batch.clear();
+                    commits[0]++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        decode.start();
+        enrich.start();
+        persist.start();
+        for (int i = 0; i < items; i++) {
+            lines.put(LINES[i]);
+        }
+        persist.join();
+        decode.join();
+        enrich.join();
+        long nanos = System.nanoTime() - start;
+        if (items == ITEMS) {
+            System.out.printf("Queue chain:   %,12.0f payments/s, %d group commits (%.1f payments each)%n",
+                    items * 1e9 / nanos, commits[0], (double) items / commits[0]);
+        }
+        return balances;
+    }
+
+    private static long[] pipeline(int items) throws InterruptedException {
+        long[] balances = new long[ACCOUNTS];
+        long[] pending = new long[ACCOUNTS];
+        int[] touched = new int[ACCOUNTS];
+        int[] touchedCount = new int[1];
+        long[] commits = new long[1];
+
+        EventPipeline.Handler<Payment> decoder = (payment, sequence) -> {
+            payment.account = accountOf(payment.line);
+            payment.cents = centsOf(payment.line);
+        };
+        EventPipeline.Handler<Payment> writer = new EventPipeline.Handler<>() {
+            @Override
+            public void onEvent(Payment payment, long sequence) {
+                if (pending[payment.account] == 0) {
+                    touched[touchedCount[0]++] = payment.account;
+                }
+                pending[payment.account] += payment.cents - payment.fee;
+            }
+
+            // One write per account for everything that arrived since the last commit
+            @Override
+            public void onBatchEnd() {
+                for (int i = 0; i < touchedCount[0]; i++) {
+                    balances[touched[i]] += pending[touched[i]];
+                    pending[touched[i]] = 0;
+                }
+                touchedCount[0] = 0;
+                commits[0]++;
+            }
+        };
+
+        EventPipeline<Payment> pipeline = new EventPipeline<>(CAPACITY, Payment::new, WaitStrategy.YIELD)
+                .then("decode", decoder)
+                .then("enrich", ENRICH_SHARDS, payment -> payment.account,
+                        shard -> (payment, sequence) -> payment.fee = feeOf(payment.account, payment.cents))
+                .then("persist", writer)
+                .start();
+        long start = System.nanoTime();
+        for (int i = 0; i < items; i++) {
+            pipeline.publish((payment, line) -> payment.line = line, LINES[i]);
+        }
+        pipeline.close();
+        long nanos = System.nanoTime() - start;
+        if (pipeline.failures() > 0) {
+            throw new IllegalStateException(pipeline.failures() + " failures");
+        }
+        if (items == ITEMS) {
+            System.out.printf("EventPipeline: %,12.0f payments/s, %d group commits (%.1f payments each)%n",
+                    items * 1e9 / nanos, commits[0], (double) items / commits[0]);
+        }
+        return balances;
+    }
+}
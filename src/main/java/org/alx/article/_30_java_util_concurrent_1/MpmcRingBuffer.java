@@ -0,0 +1,137 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ring buffer for any number of producers and consumers (Dmitry Vyukov's bounded MPMC queue).
+// Every slot carries a sequence number telling whose turn it is: a slot at position p is free for the producer
+// of p when its sequence is p, and full for the consumer of p when it is p + 1. Producers claim positions by CAS
+// on the tail, consumers on the head; the slot sequence, not a lock, hands each element over.
+// The batch methods claim a run of consecutive ready slots with a single CAS.
+public class MpmcRingBuffer<E> extends RingBuffer<E> {
+    private static final int TAIL = STRIDE;
+    private static final int HEAD = 2 * STRIDE;
+
+    private final AtomicLongArray indexes = new AtomicLongArray(3 * STRIDE);
+    private final AtomicLongArray sequences;
+
+    public MpmcRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(E element) {
+        checkNotNull(element);
+        long position = indexes.get(TAIL);
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                long witness = indexes.compareAndExchange(TAIL, position, position + 1);
+                if (witness == position) {
+                    buffer[index] = element;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = witness;
+            } else if (difference < 0) {
+                // The consumer of the previous round has not freed the slot yet
+                return false;
+            } else {
+                position = indexes.get(TAIL);
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        long position = indexes.get(HEAD);
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                long witness = indexes.compareAndExchange(HEAD, position, position + 1);
+                if (witness == position) {
+                    E element = elementAt(position);
+                    buffer[index] = null;
+                    sequences.setRelease(index, position + buffer.length);
+                    return element;
+                }
+                position = witness;
+            } else if (difference < 0) {
+                // Not produced yet
+                return null;
+            } else {
+                position = indexes.get(HEAD);
+            }
+        }
+    }
+
+    @Override
+    public int offerAll(List<? extends E> elements) {
+        checkNotNull(elements);
+        int wanted = Math.min(elements.size(), buffer.length);
+        while (true) {
+            long position = indexes.get(TAIL);
+            int ready = 0;
+            while (ready < wanted && sequences.getAcquire((int) (position + ready) & mask) == position + ready) {
+                ready++;
+            }
+            if (ready == 0) {
+                long difference = sequences.getAcquire((int) position & mask) - position;
+                if (difference < 0 || wanted == 0) {
+                    return 0;
+                }
+                continue;
+            }
+            if (indexes.compareAndSet(TAIL, position, position + ready)) {
+                for (int i = 0; i < ready; i++) {
+                    int index = (int) (position + i) & mask;
+                    buffer[index] = elements.get(i);
+                    sequences.setRelease(index, position + i + 1);
+                }
+                return ready;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int max) {
+        int wanted = Math.min(max, buffer.length);
+        while (true) {
+            long position = indexes.get(HEAD);
+            int ready = 0;
+            while (ready < wanted && sequences.getAcquire((int) (position + ready) & mask) == position + ready + 1) {
+                ready++;
+            }
+            if (ready == 0) {
+                long difference = sequences.getAcquire((int) position & mask) - (position + 1);
+                if (difference < 0 || wanted == 0) {
+                    return 0;
+                }
+                continue;
+            }
+            if (indexes.compareAndSet(HEAD, position, position + ready)) {
+                for (int i = 0; i < ready; i++) {
+                    int index = (int) (position + i) & mask;
+                    target.add(elementAt(position + i));
+                    buffer[index] = null;
+                    sequences.setRelease(index, position + i + buffer.length);
+                }
+                return ready;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long head = indexes.get(HEAD);
+        long tail = indexes.get(TAIL);
+        return (int) Math.max(0, Math.min(buffer.length, tail - head));
+    }
+}
@@ -0,0 +1,106 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.util.Collection;
+import java.util.List;
+
+// Bounded queue on a pre-allocated power-of-two array: no node per item, no lock, no parked thread to wake up.
+// offer/poll and the batch methods never block; put/take/putAll wait with the buffer's WaitStrategy.
+// null is what poll returns for an empty buffer, so null elements are rejected with a NullPointerException.
+public abstract class RingBuffer<E> {
+    // 16 longs = 128 bytes: a cache line plus the adjacent line the CPU may prefetch
+    static final int STRIDE = 16;
+
+    protected final Object[] buffer;
+    protected final int mask;
+    private final WaitStrategy waitStrategy;
+
+    protected RingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.buffer = new Object[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    // Adds the element if there is room, returns false if the buffer is full
+    public abstract boolean offer(E element);
+
+    // Removes the oldest element, returns null if the buffer is empty
+    public abstract E poll();
+
+    // Adds as many elements from the front of the list as fit, returns how many; one publication for all of them
+    public abstract int offerAll(List<? extends E> elements);
+
+    // Moves up to max available elements to the collection, returns how many; one release for all of them
+    public abstract int drainTo(Collection<? super E> target, int max);
+
+    public abstract int size();
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public void put(E element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++) {
+            idle(attempt);
+        }
+    }
+
+    public E take() throws InterruptedException {
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            idle(attempt);
+        }
+        return element;
+    }
+
+    // Waits until all elements are in, in batches of whatever fits
+    public void putAll(List<? extends E> elements) throws InterruptedException {
+        int offered = 0;
+        int attempt = 0;
+        while (offered < elements.size()) {
+            int added = offerAll(elements.subList(offered, elements.size()));
+            if (added == 0) {
+                idle(attempt++);
+            } else {
+                offered += added;
+                attempt = 0;
+            }
+        }
+    }
+
+    // Waits for at least one element, then drains up to max
+    public int drainTo(Collection<? super E> target, int max, boolean waitForOne) throws InterruptedException {
+        int drained;
+        for (int attempt = 0; (drained = drainTo(target, max)) == 0 && waitForOne; attempt++) {
+            idle(attempt);
+        }
+        return drained;
+    }
+
+    private void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        waitStrategy.idle(attempt);
+    }
+
+    protected static void checkNotNull(Object element) {
+        if (element == null) {
+            throw new NullPointerException("Ring buffers do not take null elements");
+        }
+    }
+
+    // Checks every element offerAll may take before anything is published: a claimed slot must be filled
+    protected final void checkNotNull(List<?> elements) {
+        for (int i = 0, count = Math.min(elements.size(), buffer.length); i < count; i++) {
+            checkNotNull(elements.get(i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final E elementAt(long sequence) {
+        return (E) buffer[(int) sequence & mask];
+    }
+}
@@ -0,0 +1,290 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// SharedBuffer from ConditionProducerConsumerExample against ArrayBlockingQueue and the ring buffers:
+// - throughput: producers push ITEMS integers through a buffer of CAPACITY to consumers, one by one or in batches
+// - latency: round trip of one item through two buffers between two threads (ping-pong)
+// SharedBuffer prints every item, which would be all that is measured, so LockedBuffer below is SharedBuffer
+// without the println. SPIN is only run when every thread has a core of its own: a spinning thread on a shared
+// core burns the time slice the thread it waits for needs.
+// -Ditems=N changes the number of items per run.
+public class RingBufferBenchmark {
+    private static final int CAPACITY = 1024;
+    private static final int ITEMS = Integer.getInteger("items", 2_000_000);
+    private static final int BATCH = 64;
+    private static final int ROUND_TRIPS = 50_000;
+    private static final Integer[] VALUES = new Integer[CAPACITY];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d cores, %d items per run, capacity %d%n", cores, ITEMS, CAPACITY);
+
+        System.out.println("Throughput, 1 producer / 1 consumer:");
+        throughput(1, 1, "SharedBuffer (lock + conditions)", false, () -> locked(new LockedBuffer(CAPACITY)));
+        throughput(1, 1, "ArrayBlockingQueue", false, () -> blocking(new ArrayBlockingQueue<>(CAPACITY)));
+        if (cores >= 2) {
+            throughput(1, 1, "SpscRingBuffer SPIN", false, () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.SPIN)));
+        }
+        throughput(1, 1, "SpscRingBuffer YIELD", false, () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+        throughput(1, 1, "SpscRingBuffer PARK", false, () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.PARK)));
+        throughput(1, 1, "SpscRingBuffer YIELD, batch " + BATCH, true, () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+        throughput(1, 1, "MpmcRingBuffer YIELD", false, () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+        throughput(1, 1, "MpmcRingBuffer YIELD, batch " + BATCH, true, () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+
+        System.out.println("Throughput, 2 producers / 2 consumers:");
+        throughput(2, 2, "SharedBuffer (lock + conditions)", false, () -> locked(new LockedBuffer(CAPACITY)));
+        throughput(2, 2, "ArrayBlockingQueue", false, () -> blocking(new ArrayBlockingQueue<>(CAPACITY)));
+        if (cores >= 4) {
+            throughput(2, 2, "MpmcRingBuffer SPIN", false, () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.SPIN)));
+        }
+        throughput(2, 2, "MpmcRingBuffer YIELD", false, () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+        throughput(2, 2, "MpmcRingBuffer PARK", false, () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.PARK)));
+        throughput(2, 2, "MpmcRingBuffer YIELD, batch " + BATCH, true, () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+
+        System.out.println("Round-trip latency:");
+        latency("SharedBuffer (lock + conditions)", () -> locked(new LockedBuffer(CAPACITY)));
+        latency("ArrayBlockingQueue", () -> blocking(new ArrayBlockingQueue<>(CAPACITY)));
+        if (cores >= 2) {
+            latency("SpscRingBuffer SPIN", () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.SPIN)));
+        }
+        latency("SpscRingBuffer YIELD", () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+        latency("SpscRingBuffer PARK", () -> ring(new SpscRingBuffer<>(CAPACITY, WaitStrategy.PARK)));
+        latency("MpmcRingBuffer YIELD", () -> ring(new MpmcRingBuffer<>(CAPACITY, WaitStrategy.YIELD)));
+    }
+
+    private static void throughput(int producers, int consumers, String name, boolean batched,
+                                   Supplier<Channel> channels) throws InterruptedException {
+        transfer(producers, consumers, batched, channels.get(), ITEMS / 4);
+        long nanos = transfer(producers, consumers, batched, channels.get(), ITEMS);
+        System.out.printf("  %-40s %,12.0f items/s%n", name, ITEMS * 1e9 / nanos);
+    }
+
+    private static long transfer(int producers, int consumers, boolean batched, Channel channel, int items)
+            throws InterruptedException {
+        long[] sums = new long[consumers];
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int count = items / producers;
+            threads.add(new Thread(() -> produce(channel, count, batched)));
+        }
+        for (int c = 0; c < consumers; c++) {
+            int count = items / consumers;
+            int slot = c;
+            threads.add(new Thread(() -> sums[slot] = consume(channel, count, batched)));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long nanos = System.nanoTime() - start;
+
+        long expected = 0;
+        for (int p = 0; p < producers; p++) {
+            for (int i = 0; i < items / producers; i++) {
+                expected += VALUES[i % VALUES.length];
+            }
+        }
+        long sum = 0;
+        for (long s : sums) {
+            sum += s;
+        }
+        if (sum != expected) {
+            throw new IllegalStateException("Consumed sum " + sum + ", produced " + expected);
+        }
+        return nanos;
+    }
+
+    private static void produce(Channel channel, int count, boolean batched) {
+        try {
+            if (batched) {
+                List<Integer> batch = new ArrayList<>(BATCH);
+                for (int i = 0; i < count; i++) {
+                    batch.add(VALUES[i % VALUES.length]);
+                    if (batch.size() == BATCH || i == count - 1) {
+                        channel.putAll(batch);
+                        batch.clear();
+                    }
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    channel.put(VALUES[i % VALUES.length]);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long consume(Channel channel, int count, boolean batched) {
+        long sum = 0;
+        try {
+            if (batched) {
+                List<Integer> batch = new ArrayList<>(BATCH);
+                for (int received = 0; received < count; ) {
+                    received += channel.drainTo(batch, Math.min(BATCH, count - received));
+                    for (Integer value : batch) {
+                        sum += value;
+                    }
+                    batch.clear();
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    sum += channel.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return sum;
+    }
+
+    private static void latency(String name, Supplier<Channel> channels) throws InterruptedException {
+        pingPong(channels.get(), channels.get(), ROUND_TRIPS / 4);
+        long[] roundTrips = pingPong(channels.get(), channels.get(), ROUND_TRIPS);
+        Arrays.sort(roundTrips);
+        System.out.printf("  %-40s p50 %,8d ns  p99 %,10d ns  max %,12d ns%n", name,
+                roundTrips[roundTrips.length / 2], roundTrips[roundTrips.length * 99 / 100], roundTrips[roundTrips.length - 1]);
+    }
+
+    // Nanoseconds of every round trip
+    private static long[] pingPong(Channel ping, Channel pong, int roundTrips) throws InterruptedException {
+        Thread echo = new Thread(() -> {
+            try {
+                for (int i = 0; i < roundTrips; i++) {
+                    pong.put(ping.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        echo.start();
+        long[] nanos = new long[roundTrips];
+        for (int i = 0; i < roundTrips; i++) {
+            long start = System.nanoTime();
+            ping.put(VALUES[i % VALUES.length]);
+            pong.take();
+            nanos[i] = System.nanoTime() - start;
+        }
+        echo.join();
+        return nanos;
+    }
+
+    private interface Channel {
+        void put(Integer value) throws InterruptedException;
+
+        Integer take() throws InterruptedException;
+
+        default void putAll(List<Integer> values) throws InterruptedException {
+            for (Integer value : values) {
+                put(value);
+            }
+        }
+
+        default int drainTo(List<Integer> target, int max) throws InterruptedException {
+            target.add(take());
+            return 1;
+        }
+    }
+
+    private static Channel locked(LockedBuffer buffer) {
+        return new Channel() {
+            public void put(Integer value) throws InterruptedException {
+                buffer.produce(value);
+            }
+
+            public Integer take() throws InterruptedException {
+                return buffer.consume();
+            }
+        };
+    }
+
+    private static Channel blocking(BlockingQueue<Integer> queue) {
+        return new Channel() {
+            public void put(Integer value) throws InterruptedException {
+                queue.put(value);
+            }
+
+            public Integer take() throws InterruptedException {
+                return queue.take();
+            }
+        };
+    }
+
+    private static Channel ring(RingBuffer<Integer> ring) {
+        return new Channel() {
+            public void put(Integer value) throws InterruptedException {
+                ring.put(value);
+            }
+
+            public Integer take() throws InterruptedException {
+                return ring.take();
+            }
+
+            public void putAll(List<Integer> values) throws InterruptedException {
+                ring.putAll(values);
+            }
+
+            public int drainTo(List<Integer> target, int max) throws InterruptedException {
+                return ring.drainTo(target, max, true);
+            }
+        };
+    }
+
+    // SharedBuffer without the println
+    private static class LockedBuffer {
+        private final Queue<Integer> queue = new LinkedList<>();
+        private final int capacity;
+        private final Lock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private final Condition notEmpty = lock.newCondition();
+
+        LockedBuffer(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void produce(int value) throws InterruptedException {
+            lock.lock();
+            try {
+                while (queue.size() == capacity) {
+                    notFull.await();
+                }
+                queue.add(value);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int consume() throws InterruptedException {
+            lock.lock();
+            try {
+                while (queue.isEmpty()) {
+                    notEmpty.await();
+                }
+                int value = queue.poll();
+                notFull.signal();
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ring buffer for exactly one producer thread and one consumer thread.
+// Each side owns one index and only publishes it with a release store, no CAS at all. Each side also keeps
+// a cached copy of the other side's index on its own cache line and only re-reads the real one when the
+// cache says full/empty, so in steady state the two threads hardly touch each other's lines.
+public class SpscRingBuffer<E> extends RingBuffer<E> {
+    private static final int PRODUCER = STRIDE;
+    private static final int CONSUMER_CACHE = STRIDE + 1;
+    private static final int CONSUMER = 2 * STRIDE;
+    private static final int PRODUCER_CACHE = 2 * STRIDE + 1;
+
+    // Producer index and its cache of the consumer index on one line, the consumer's pair on the next
+    private final AtomicLongArray indexes = new AtomicLongArray(3 * STRIDE);
+
+    public SpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        checkNotNull(element);
+        long producer = indexes.getPlain(PRODUCER);
+        if (producer - indexes.getPlain(CONSUMER_CACHE) >= buffer.length) {
+            long consumer = indexes.getAcquire(CONSUMER);
+            indexes.setPlain(CONSUMER_CACHE, consumer);
+            if (producer - consumer >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) producer & mask] = element;
+        indexes.setRelease(PRODUCER, producer + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long consumer = indexes.getPlain(CONSUMER);
+        if (consumer >= indexes.getPlain(PRODUCER_CACHE)) {
+            long producer = indexes.getAcquire(PRODUCER);
+            indexes.setPlain(PRODUCER_CACHE, producer);
+            if (consumer >= producer) {
+                return null;
+            }
+        }
+        E element = elementAt(consumer);
+        buffer[(int) consumer & mask] = null;
+        indexes.setRelease(CONSUMER, consumer + 1);
+        return element;
+    }
+
+    @Override
+    public int offerAll(List<? extends E> elements) {
+        checkNotNull(elements);
+        long producer = indexes.getPlain(PRODUCER);
+        long free = buffer.length - (producer - indexes.getPlain(CONSUMER_CACHE));
+        if (free < elements.size()) {
+            long consumer = indexes.getAcquire(CONSUMER);
+            indexes.setPlain(CONSUMER_CACHE, consumer);
+            free = buffer.length - (producer - consumer);
+        }
+        int count = (int) Math.min(free, elements.size());
+        for (int i = 0; i < count; i++) {
+            buffer[(int) (producer + i) & mask] = elements.get(i);
+        }
+        if (count > 0) {
+            indexes.setRelease(PRODUCER, producer + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int max) {
+        long consumer = indexes.getPlain(CONSUMER);
+        long available = indexes.getPlain(PRODUCER_CACHE) - consumer;
+        if (available < max) {
+            long producer = indexes.getAcquire(PRODUCER);
+            indexes.setPlain(PRODUCER_CACHE, producer);
+            available = producer - consumer;
+        }
+        int count = (int) Math.min(available, max);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (consumer + i) & mask;
+            target.add(elementAt(consumer + i));
+            buffer[index] = null;
+        }
+        if (count > 0) {
+            indexes.setRelease(CONSUMER, consumer + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        long consumer = indexes.getAcquire(CONSUMER);
+        long producer = indexes.getAcquire(PRODUCER);
+        return (int) Math.max(0, Math.min(buffer.length, producer - consumer));
+    }
+}
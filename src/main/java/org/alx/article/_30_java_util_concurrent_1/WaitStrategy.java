@@ -0,0 +1,46 @@
+package org.alx.article._30_java_util_concurrent_1;
+
+import java.util.concurrent.locks.LockSupport;
+
+// What a thread does while a ring buffer is full (producer) or empty (consumer); nobody signals, the waiting
+// thread polls again after each idle call, so the choice trades CPU for wake-up latency:
+// - SPIN: busy-spins, lowest latency, burns a core; only for threads that own a core
+// - YIELD: spins briefly, then gives up its time slice; good when threads and cores are about even
+// - PARK: spins, yields, then sleeps PARK_NANOS at a time; near-zero CPU when idle, wakes up late
+public enum WaitStrategy {
+    SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+    YIELD {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+    PARK {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    // attempt counts the failed tries of the current wait, starting at 0
+    abstract void idle(int attempt);
+}
@@ -0,0 +1,408 @@
+package org.alx.article._32_java_concurrency_best_practices;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+// Generalization of ParallelComputationExample.SumTask for int[], long[] and double[]:
+// - results travel in primitive fields of RecursiveAction, so no Long is boxed per split
+// - the split threshold is derived from the array length and the pool parallelism
+// - double sums use Kahan summation in the leaves and pairwise combination between them
+public final class ParallelReductions {
+    private static final int MIN_THRESHOLD = 1 << 13;
+    private static final int TASKS_PER_WORKER = 4;
+
+    @FunctionalInterface
+    public interface IntCombiner {
+        int combine(int left, int right);
+    }
+
+    @FunctionalInterface
+    public interface LongCombiner {
+        long combine(long left, long right);
+    }
+
+    @FunctionalInterface
+    public interface DoubleCombiner {
+        double combine(double left, double right);
+    }
+
+    private final ForkJoinPool pool;
+
+    public ParallelReductions(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ParallelReductions() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // Enough leaves to keep every worker busy with some slack for stealing, but never tiny ones
+    int threshold(int length) {
+        return Math.max(MIN_THRESHOLD, length / (pool.getParallelism() * TASKS_PER_WORKER));
+    }
+
+    private <T extends RecursiveAction> T run(T task) {
+        pool.invoke(task);
+        return task;
+    }
+
+    // Generic reductions, the combiner must be associative and identity must be neutral for it
+
+    public int reduce(int[] array, int identity, IntCombiner combiner) {
+        return run(new IntTask(threshold(array.length), 0, array.length, (from, to) -> {
+            int result = identity;
+            for (int i = from; i < to; i++) {
+                result = combiner.combine(result, array[i]);
+            }
+            return result;
+        }, combiner)).result;
+    }
+
+    public long reduce(long[] array, long identity, LongCombiner combiner) {
+        return run(new LongTask(threshold(array.length), 0, array.length, (from, to) -> {
+            long result = identity;
+            for (int i = from; i < to; i++) {
+                result = combiner.combine(result, array[i]);
+            }
+            return result;
+        }, combiner)).result;
+    }
+
+    public double reduce(double[] array, double identity, DoubleCombiner combiner) {
+        return run(new DoubleTask(threshold(array.length), 0, array.length, (from, to) -> {
+            double result = identity;
+            for (int i = from; i < to; i++) {
+                result = combiner.combine(result, array[i]);
+            }
+            return result;
+        }, combiner)).result;
+    }
+
+    // Sums, int values are widened to long so the result does not overflow
+
+    public long sum(int[] array) {
+        return run(new LongTask(threshold(array.length), 0, array.length, (from, to) -> {
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += array[i];
+            }
+            return sum;
+        }, Long::sum)).result;
+    }
+
+    public long sum(long[] array) {
+        return reduce(array, 0L, Long::sum);
+    }
+
+    public double sum(double[] array) {
+        return run(new DoubleTask(threshold(array.length), 0, array.length, (from, to) -> {
+            // Kahan summation: c keeps the low-order bits lost by the previous addition
+            double sum = 0.0;
+            double c = 0.0;
+            for (int i = from; i < to; i++) {
+                double y = array[i] - c;
+                double t = sum + y;
+                c = (t - sum) - y;
+                sum = t;
+            }
+            return sum;
+        }, Double::sum)).result;
+    }
+
+    // Min and max, the identity of an empty array is the opposite extreme
+
+    public int min(int[] array) {
+        return reduce(array, Integer.MAX_VALUE, Math::min);
+    }
+
+    public int max(int[] array) {
+        return reduce(array, Integer.MIN_VALUE, Math::max);
+    }
+
+    public long min(long[] array) {
+        return reduce(array, Long.MAX_VALUE, Math::min);
+    }
+
+    public long max(long[] array) {
+        return reduce(array, Long.MIN_VALUE, Math::max);
+    }
+
+    public double min(double[] array) {
+        return reduce(array, Double.POSITIVE_INFINITY, Math::min);
+    }
+
+    public double max(double[] array) {
+        return reduce(array, Double.NEGATIVE_INFINITY, Math::max);
+    }
+
+    // Count-if
+
+    public long countIf(int[] array, IntPredicate predicate) {
+        return run(new LongTask(threshold(array.length), 0, array.length, (from, to) -> {
+            long count = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(array[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum)).result;
+    }
+
+    public long countIf(long[] array, LongPredicate predicate) {
+        return run(new LongTask(threshold(array.length), 0, array.length, (from, to) -> {
+            long count = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(array[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum)).result;
+    }
+
+    public long countIf(double[] array, DoublePredicate predicate) {
+        return run(new LongTask(threshold(array.length), 0, array.length, (from, to) -> {
+            long count = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(array[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum)).result;
+    }
+
+    // Histograms of equal-width bins over [min, max), values outside the range are ignored
+
+    public long[] histogram(int[] array, int min, int max, int bins) {
+        checkRange(min < max, bins);
+        double width = ((double) max - min) / bins;
+        return run(new HistogramTask(threshold(array.length), 0, array.length, bins, (counts, from, to) -> {
+            for (int i = from; i < to; i++) {
+                int value = array[i];
+                if (value >= min && value < max) {
+                    counts[Math.min(bins - 1, (int) ((value - (double) min) / width))]++;
+                }
+            }
+        })).counts;
+    }
+
+    public long[] histogram(long[] array, long min, long max, int bins) {
+        checkRange(min < max, bins);
+        double width = ((double) max - min) / bins;
+        return run(new HistogramTask(threshold(array.length), 0, array.length, bins, (counts, from, to) -> {
+            for (int i = from; i < to; i++) {
+                long value = array[i];
+                if (value >= min && value < max) {
+                    counts[Math.min(bins - 1, (int) ((value - (double) min) / width))]++;
+                }
+            }
+        })).counts;
+    }
+
+    public long[] histogram(double[] array, double min, double max, int bins) {
+        checkRange(min < max, bins);
+        double width = (max - min) / bins;
+        return run(new HistogramTask(threshold(array.length), 0, array.length, bins, (counts, from, to) -> {
+            for (int i = from; i < to; i++) {
+                double value = array[i];
+                if (value >= min && value < max) {
+                    counts[Math.min(bins - 1, (int) ((value - min) / width))]++;
+                }
+            }
+        })).counts;
+    }
+
+    private static void checkRange(boolean validRange, int bins) {
+        if (!validRange || bins <= 0) {
+            throw new IllegalArgumentException("Histogram needs min < max and a positive number of bins");
+        }
+    }
+
+    // Leaf computations over [from, to)
+
+    @FunctionalInterface
+    private interface IntLeaf {
+        int apply(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface LongLeaf {
+        long apply(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface DoubleLeaf {
+        double apply(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface HistogramLeaf {
+        void apply(long[] counts, int from, int to);
+    }
+
+    private static final class IntTask extends RecursiveAction {
+        private final int threshold;
+        private final int start;
+        private final int end;
+        private final IntLeaf leaf;
+        private final IntCombiner combiner;
+        int result;
+
+        IntTask(int threshold, int start, int end, IntLeaf leaf, IntCombiner combiner) {
+            this.threshold = threshold;
+            this.start = start;
+            this.end = end;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                result = leaf.apply(start, end);
+            } else {
+                int mid = (start + end) >>> 1;
+                IntTask left = new IntTask(threshold, start, mid, leaf, combiner);
+                IntTask right = new IntTask(threshold, mid, end, leaf, combiner);
+                left.fork();
+                right.compute();
+                left.join();
+                result = combiner.combine(left.result, right.result);
+            }
+        }
+    }
+
+    private static final class LongTask extends RecursiveAction {
+        private final int threshold;
+        private final int start;
+        private final int end;
+        private final LongLeaf leaf;
+        private final LongCombiner combiner;
+        long result;
+
+        LongTask(int threshold, int start, int end, LongLeaf leaf, LongCombiner combiner) {
+            this.threshold = threshold;
+            this.start = start;
+            this.end = end;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                result = leaf.apply(start, end);
+            } else {
+                int mid = (start + end) >>> 1;
+                LongTask left = new LongTask(threshold, start, mid, leaf, combiner);
+                LongTask right = new LongTask(threshold, mid, end, leaf, combiner);
+                left.fork();
+                right.compute();
+                left.join();
+                result = combiner.combine(left.result, right.result);
+            }
+        }
+    }
+
+    private static final class DoubleTask extends RecursiveAction {
+        private final int threshold;
+        private final int start;
+        private final int end;
+        private final DoubleLeaf leaf;
+        private final DoubleCombiner combiner;
+        double result;
+
+        DoubleTask(int threshold, int start, int end, DoubleLeaf leaf, DoubleCombiner combiner) {
+            this.threshold = threshold;
+            this.start = start;
+            this.end = end;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                result = leaf.apply(start, end);
+            } else {
+                int mid = (start + end) >>> 1;
+                DoubleTask left = new DoubleTask(threshold, start, mid, leaf, combiner);
+                DoubleTask right = new DoubleTask(threshold, mid, end, leaf, combiner);
+                left.fork();
+                right.compute();
+                left.join();
+                result = combiner.combine(left.result, right.result);
+            }
+        }
+    }
+
+    private static final class HistogramTask extends RecursiveAction {
+        private final int threshold;
+        private final int start;
+        private final int end;
+        private final int bins;
+        private final HistogramLeaf leaf;
+        long[] counts;
+
+        HistogramTask(int threshold, int start, int end, int bins, HistogramLeaf leaf) {
+            this.threshold = threshold;
+            this.start = start;
+            this.end = end;
+            this.bins = bins;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                counts = new long[bins];
+                leaf.apply(counts, start, end);
+            } else {
+                int mid = (start + end) >>> 1;
+                HistogramTask left = new HistogramTask(threshold, start, mid, bins, leaf);
+                HistogramTask right = new HistogramTask(threshold, mid, end, bins, leaf);
+                left.fork();
+                right.compute();
+                left.join();
+                counts = right.counts;
+                for (int i = 0; i < bins; i++) {
+                    counts[i] += left.counts[i];
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        long[] longs = new long[10_000_000];
+        Arrays.fill(longs, 1);
+        int[] ints = new int[10_000_000];
+        double[] doubles = new double[10_000_000];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = i % 1000;
+            doubles[i] = 0.1;
+        }
+
+        ParallelReductions reductions = new ParallelReductions();
+        System.out.println("Threshold for 10M elements: " + reductions.threshold(longs.length));
+
+        long start = System.nanoTime();
+        long sumTask = ForkJoinPool.commonPool().invoke(new ParallelComputationExample.SumTask(longs, 0, longs.length));
+        System.out.println("SumTask: " + sumTask + " in " + (System.nanoTime() - start) / 1_000 + " us");
+
+        start = System.nanoTime();
+        long sum = reductions.sum(longs);
+        System.out.println("ParallelReductions.sum: " + sum + " in " + (System.nanoTime() - start) / 1_000 + " us");
+
+        System.out.println("Sum of 10M x 0.1, naive: " + Arrays.stream(doubles).reduce(0.0, Double::sum)
+                + ", compensated: " + reductions.sum(doubles));
+        System.out.println("Min/max: " + reductions.min(ints) + "/" + reductions.max(ints));
+        System.out.println("Count of values >= 500: " + reductions.countIf(ints, value -> value >= 500));
+        System.out.println("Histogram: " + Arrays.toString(reductions.histogram(ints, 0, 1000, 4)));
+    }
+}
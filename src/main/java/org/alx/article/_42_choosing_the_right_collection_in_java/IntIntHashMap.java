@@ -0,0 +1,265 @@
+package org.alx.article._42_choosing_the_right_collection_in_java;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+import static org.alx.article._42_choosing_the_right_collection_in_java.IntObjectHashMap.FREE_KEY;
+import static org.alx.article._42_choosing_the_right_collection_in_java.IntObjectHashMap.mix;
+import static org.alx.article._42_choosing_the_right_collection_in_java.IntObjectHashMap.tableSizeFor;
+
+// Open-addressing map from int keys to int values, the primitive twin of IntObjectHashMap.
+// Keys and values share one int[] as adjacent pairs, so a lookup reads a single cache line.
+// A missing key is reported as missingValue (0 by default) instead of null.
+public class IntIntHashMap {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int missingValue;
+    // [key0, value0, key1, value1, ...]
+    private int[] table;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+
+    public IntIntHashMap() {
+        this(16, 0);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    public IntIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int missingValue() {
+        return missingValue;
+    }
+
+    public int get(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : missingValue;
+        }
+        int index = find(key);
+        return index < 0 ? missingValue : table[index + 1];
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int index = find(key);
+        return index < 0 ? defaultValue : table[index + 1];
+    }
+
+    public boolean containsKey(int key) {
+        return key == FREE_KEY ? hasFreeKey : find(key) >= 0;
+    }
+
+    public int put(int key, int value) {
+        if (key == FREE_KEY) {
+            int previous = hasFreeKey ? freeKeyValue : missingValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return previous;
+        }
+        int index = indexFor(key);
+        if (table[index] == key) {
+            int previous = table[index + 1];
+            table[index + 1] = value;
+            return previous;
+        }
+        insert(index, key, value);
+        return missingValue;
+    }
+
+    public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                put(key, mappingFunction.applyAsInt(key));
+            }
+            return freeKeyValue;
+        }
+        int index = indexFor(key);
+        if (table[index] == key) {
+            return table[index + 1];
+        }
+        int value = mappingFunction.applyAsInt(key);
+        insert(index, key, value);
+        return value;
+    }
+
+    // Stores value for a new key, otherwise remappingFunction.applyAsInt(existing, value)
+    public int merge(int key, int value, IntBinaryOperator remappingFunction) {
+        if (key == FREE_KEY) {
+            int merged = hasFreeKey ? remappingFunction.applyAsInt(freeKeyValue, value) : value;
+            put(key, merged);
+            return merged;
+        }
+        int index = indexFor(key);
+        if (table[index] == key) {
+            return table[index + 1] = remappingFunction.applyAsInt(table[index + 1], value);
+        }
+        insert(index, key, value);
+        return value;
+    }
+
+    // Counter increment, a new key starts from 0
+    public int addTo(int key, int delta) {
+        return merge(key, delta, Integer::sum);
+    }
+
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return missingValue;
+            }
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+        int index = find(key);
+        if (index < 0) {
+            return missingValue;
+        }
+        int previous = table[index + 1];
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    // Bulk copy: the table is grown once up front and the other map's array is walked directly
+    public void putAll(IntIntHashMap other) {
+        ensureCapacity(size + other.size);
+        if (other.hasFreeKey) {
+            put(FREE_KEY, other.freeKeyValue);
+        }
+        int[] otherTable = other.table;
+        for (int i = 0; i < otherTable.length; i += 2) {
+            int key = otherTable[i];
+            if (key != FREE_KEY) {
+                int index = indexFor(key);
+                if (table[index] != key) {
+                    table[index] = key;
+                    size++;
+                }
+                table[index + 1] = otherTable[i + 1];
+            }
+        }
+    }
+
+    public void ensureCapacity(int expectedSize) {
+        int tableSize = tableSizeFor(expectedSize);
+        if (tableSize * 2 > table.length) {
+            rehash(tableSize);
+        }
+    }
+
+    public void forEach(IntIntConsumer action) {
+        if (hasFreeKey) {
+            action.accept(FREE_KEY, freeKeyValue);
+        }
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != FREE_KEY) {
+                action.accept(table[i], table[i + 1]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    private int find(int key) {
+        for (int index = (mix(key) & mask) << 1; ; index = (index + 2) & (table.length - 1)) {
+            int current = table[index];
+            if (current == key) {
+                return index;
+            }
+            if (current == FREE_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    private int indexFor(int key) {
+        int index = (mix(key) & mask) << 1;
+        while (table[index] != key && table[index] != FREE_KEY) {
+            index = (index + 2) & (table.length - 1);
+        }
+        return index;
+    }
+
+    private void insert(int index, int key, int value) {
+        table[index] = key;
+        table[index + 1] = value;
+        if (++size > threshold) {
+            rehash(table.length);
+        }
+    }
+
+    // Backward-shift deletion, see IntObjectHashMap.shiftBack
+    private void shiftBack(int gap) {
+        int gapSlot = gap >> 1;
+        for (int slot = (gapSlot + 1) & mask; table[slot << 1] != FREE_KEY; slot = (slot + 1) & mask) {
+            int home = mix(table[slot << 1]) & mask;
+            if (((slot - home) & mask) >= ((slot - gapSlot) & mask)) {
+                table[gapSlot << 1] = table[slot << 1];
+                table[(gapSlot << 1) + 1] = table[(slot << 1) + 1];
+                gapSlot = slot;
+            }
+        }
+        table[gapSlot << 1] = FREE_KEY;
+        table[(gapSlot << 1) + 1] = 0;
+    }
+
+    private void rehash(int tableSize) {
+        int[] oldTable = table;
+        allocate(tableSize);
+        for (int i = 0; i < oldTable.length; i += 2) {
+            int key = oldTable[i];
+            if (key != FREE_KEY) {
+                int index = indexFor(key);
+                table[index] = key;
+                table[index + 1] = oldTable[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        table = new int[tableSize * 2];
+        mask = tableSize - 1;
+        threshold = (int) (tableSize * LOAD_FACTOR);
+    }
+}
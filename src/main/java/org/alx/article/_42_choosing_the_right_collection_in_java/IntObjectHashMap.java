@@ -0,0 +1,301 @@
+package org.alx.article._42_choosing_the_right_collection_in_java;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+// Open-addressing map from int keys to objects:
+// - keys live in an int[] and values in a parallel Object[], there is no boxed key and no entry object,
+//   so a mapping costs 8 bytes per slot instead of ~48 bytes for a HashMap node with an Integer key
+// - collisions are resolved by linear probing, removal shifts the following entries back (no tombstones)
+// - key 0 marks a free slot, so the mapping for key 0 itself is kept in two separate fields
+// Values must not be null, get returns null for a missing key just like Map.get.
+public class IntObjectHashMap<V> {
+    static final int FREE_KEY = 0;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    private boolean hasFreeKey;
+    private V freeKeyValue;
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public V get(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : null;
+        }
+        int slot = find(key);
+        return slot < 0 ? null : value(slot);
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(int key) {
+        return key == FREE_KEY ? hasFreeKey : find(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        if (key == FREE_KEY) {
+            V previous = freeKeyValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return previous;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            V previous = value(slot);
+            values[slot] = value;
+            return previous;
+        }
+        insert(slot, key, value);
+        return null;
+    }
+
+    public V putIfAbsent(int key, V value) {
+        V existing = get(key);
+        return existing != null ? existing : put(key, value);
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                put(key, Objects.requireNonNull(mappingFunction.apply(key), "value"));
+            }
+            return freeKeyValue;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            return value(slot);
+        }
+        V value = Objects.requireNonNull(mappingFunction.apply(key), "value");
+        insert(slot, key, value);
+        return value;
+    }
+
+    // Same contract as Map.merge: a null result from the remapping function removes the mapping
+    public V merge(int key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value, "value");
+        V existing = get(key);
+        if (existing == null) {
+            put(key, value);
+            return value;
+        }
+        V merged = remappingFunction.apply(existing, value);
+        if (merged == null) {
+            remove(key);
+        } else {
+            put(key, merged);
+        }
+        return merged;
+    }
+
+    public V remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return null;
+            }
+            V previous = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            size--;
+            return previous;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = value(slot);
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    // Bulk copy: the table is grown once up front and the other map's arrays are walked directly
+    public void putAll(IntObjectHashMap<? extends V> other) {
+        ensureCapacity(size + other.size);
+        if (other.hasFreeKey) {
+            put(FREE_KEY, other.freeKeyValue);
+        }
+        int[] otherKeys = other.keys;
+        Object[] otherValues = other.values;
+        for (int i = 0; i < otherKeys.length; i++) {
+            int key = otherKeys[i];
+            if (key != FREE_KEY) {
+                int slot = slotFor(key);
+                if (keys[slot] == key) {
+                    values[slot] = otherValues[i];
+                } else {
+                    keys[slot] = key;
+                    values[slot] = otherValues[i];
+                    size++;
+                }
+            }
+        }
+    }
+
+    public void ensureCapacity(int expectedSize) {
+        int tableSize = tableSizeFor(expectedSize);
+        if (tableSize > keys.length) {
+            rehash(tableSize);
+        }
+    }
+
+    public void forEach(IntObjectConsumer<? super V> action) {
+        if (hasFreeKey) {
+            action.accept(FREE_KEY, freeKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                action.accept(keys[i], value(i));
+            }
+        }
+    }
+
+    public int[] keys() {
+        int[] result = new int[size];
+        int j = 0;
+        if (hasFreeKey) {
+            result[j++] = FREE_KEY;
+        }
+        for (int key : keys) {
+            if (key != FREE_KEY) {
+                result[j++] = key;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        hasFreeKey = false;
+        freeKeyValue = null;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    // Slot holding the key, or -1
+    private int find(int key) {
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == FREE_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    // Slot holding the key, or the free slot where it would be inserted
+    private int slotFor(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != key && keys[slot] != FREE_KEY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, int key, V value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    // Backward-shift deletion: move later entries of the probe chain into the gap until a free slot is reached
+    private void shiftBack(int gap) {
+        for (int slot = (gap + 1) & mask; keys[slot] != FREE_KEY; slot = (slot + 1) & mask) {
+            int home = mix(keys[slot]) & mask;
+            // The entry may move into the gap only if its home slot is not cyclically inside (gap, slot]
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = null;
+    }
+
+    private void rehash(int tableSize) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = slotFor(key);
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+        threshold = (int) (tableSize * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) values[slot];
+    }
+
+    // Power-of-two table that holds expectedSize entries below the load factor
+    static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 2) / (double) LOAD_FACTOR) + 1;
+        if (needed > (1 << 30)) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    // Spreads sequential ids over the table, linear probing degrades badly on clustered hashes
+    static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
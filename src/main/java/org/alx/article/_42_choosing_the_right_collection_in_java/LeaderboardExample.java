@@ -0,0 +1,68 @@
+package org.alx.article._42_choosing_the_right_collection_in_java;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class LeaderboardExample {
+    private static final int PLAYERS = 100_000;
+    private static final int UPDATES = 1_000_000;
+
+    public static void main(String[] args) {
+        // The TreeMap + CustomComparator trick loses track of an entry once its value changes
+        Map<String, Integer> scores = new HashMap<>();
+        scores.put("John", 30);
+        scores.put("Alice", 25);
+        scores.put("Bob", 35);
+        TreeMap<String, Integer> treeMap = new TreeMap<>(new CustomComparator(scores));
+        treeMap.putAll(scores);
+        scores.put("Alice", 40);
+        System.out.println("TreeMap after Alice's score changed: " + treeMap
+                + ", contains Alice: " + treeMap.containsKey("Alice"));
+
+        ValueOrderedMap<String, Integer> leaderboard = new ValueOrderedMap<>();
+        leaderboard.put("John", 30);
+        leaderboard.put("Alice", 25);
+        leaderboard.put("Bob", 35);
+        leaderboard.put("Alice", 40);
+        System.out.println("ValueOrderedMap: " + leaderboard);
+        System.out.println("Top 2: " + leaderboard.highest(2) + ", John's place: "
+                + (leaderboard.descendingRank("John") + 1));
+
+        // Leaderboard load: random score updates, each followed by a rank lookup
+        Random random = new Random(42);
+        ValueOrderedMap<Integer, Integer> board = new ValueOrderedMap<>();
+        for (int player = 0; player < PLAYERS; player++) {
+            board.put(player, random.nextInt(1_000_000));
+        }
+        long start = System.nanoTime();
+        long rankSum = 0;
+        for (int i = 0; i < UPDATES; i++) {
+            int player = random.nextInt(PLAYERS);
+            board.put(player, board.get(player) + random.nextInt(1_000));
+            rankSum += board.descendingRank(player);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%d updates + ranks over %d players: %d ms (%.0f ns/update), rank checksum %d%n",
+                UPDATES, PLAYERS, elapsed / 1_000_000, (double) elapsed / UPDATES, rankSum);
+        System.out.println("Top 3: " + board.highest(3));
+
+        verifyRanks(board);
+    }
+
+    // Every rank must match the position in the in-order entry list
+    private static void verifyRanks(ValueOrderedMap<Integer, Integer> board) {
+        var entries = board.entries();
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<Integer, Integer> entry = entries.get(i);
+            if (board.rank(entry.getKey()) != i || !board.entryAt(i).equals(entry)) {
+                throw new IllegalStateException("Rank mismatch at " + i);
+            }
+            if (i > 0 && entries.get(i - 1).getValue() > entry.getValue()) {
+                throw new IllegalStateException("Order broken at " + i);
+            }
+        }
+        System.out.println("Ranks verified for " + entries.size() + " entries");
+    }
+}
@@ -0,0 +1,105 @@
+package org.alx.article._42_choosing_the_right_collection_in_java;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PrimitiveMapExample {
+    private static final int ENTRIES = 2_000_000;
+
+    public static void main(String[] args) {
+        IntObjectHashMap<String> names = new IntObjectHashMap<>();
+        names.put(0, "zero");
+        names.put(1, "Alice");
+        names.put(2, "Bob");
+        names.computeIfAbsent(3, id -> "Person" + id);
+        names.merge(2, "John", (existing, added) -> existing + " & " + added);
+        System.out.println("Names: " + names + ", size " + names.size());
+
+        IntIntHashMap counts = new IntIntHashMap(16, -1);
+        for (int value : new int[]{5, 3, 5, 0, 5, 3}) {
+            counts.addTo(value, 1);
+        }
+        System.out.println("Counts: " + counts + ", missing key -> " + counts.get(42));
+
+        verifyAgainstHashMap();
+
+        // Heap per entry, the String values are shared so only the map structure is measured
+        String value = "value";
+        long before = usedMemory();
+        Map<Integer, String> boxed = new HashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            boxed.put(i * 7, value);
+        }
+        long boxedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntObjectHashMap<String> primitive = new IntObjectHashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            primitive.put(i * 7, value);
+        }
+        long primitiveBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntIntHashMap ints = new IntIntHashMap();
+        for (int i = 0; i < ENTRIES; i++) {
+            ints.put(i * 7, i);
+        }
+        long intsBytes = usedMemory() - before;
+
+        System.out.printf("HashMap<Integer, String>: %.1f bytes/entry%n", (double) boxedBytes / boxed.size());
+        System.out.printf("IntObjectHashMap<String>: %.1f bytes/entry%n", (double) primitiveBytes / primitive.size());
+        System.out.printf("IntIntHashMap:            %.1f bytes/entry%n", (double) intsBytes / ints.size());
+
+        IntObjectHashMap<String> copy = new IntObjectHashMap<>();
+        long start = System.nanoTime();
+        copy.putAll(primitive);
+        System.out.printf("putAll of %d entries: %d ms%n", copy.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Random puts, merges and removes, including key 0, must leave both maps with the same content
+    private static void verifyAgainstHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        IntObjectHashMap<Integer> objects = new IntObjectHashMap<>();
+        IntIntHashMap ints = new IntIntHashMap();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            int value = random.nextInt(100);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    expected.put(key, value);
+                    objects.put(key, value);
+                    ints.put(key, value);
+                }
+                case 1 -> {
+                    expected.merge(key, value, Integer::sum);
+                    objects.merge(key, value, Integer::sum);
+                    ints.merge(key, value, Integer::sum);
+                }
+                default -> {
+                    expected.remove(key);
+                    objects.remove(key);
+                    ints.remove(key);
+                }
+            }
+        }
+        expected.forEach((key, value) -> {
+            if (!value.equals(objects.get(key)) || value != ints.get(key)) {
+                throw new IllegalStateException("Mismatch for key " + key);
+            }
+        });
+        if (expected.size() != objects.size() || expected.size() != ints.size()) {
+            throw new IllegalStateException("Size mismatch");
+        }
+        System.out.println("Random operations match HashMap: " + expected.size() + " keys");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,297 @@
+package org.alx.article._42_choosing_the_right_collection_in_java;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// Map whose entries are kept sorted by value, a replacement for a TreeMap ordered by a comparator
+// that looks the values up in a second map (see CustomComparator):
+// - key -> value lives in a HashMap, so get and containsKey stay O(1)
+// - (value, key) pairs live in an AVL tree where every node knows the size of its subtree,
+//   which makes put, remove, rank and access by rank O(log n)
+// - changing a value removes the old pair and inserts the new one, the order can never go stale
+// Ties on the value are broken by the key, so every entry has a distinct position.
+public class ValueOrderedMap<K extends Comparable<? super K>, V extends Comparable<? super V>> {
+    private final Map<K, V> index = new HashMap<>();
+    private Node<K, V> root;
+
+    private static final class Node<K, V> {
+        final K key;
+        // Replaced in place only by a value that compares equal, which keeps the node's position
+        V value;
+        Node<K, V> left;
+        Node<K, V> right;
+        int height = 1;
+        int size = 1;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        V previous = index.put(key, value);
+        if (previous != null) {
+            if (previous.compareTo(value) == 0) {
+                // Same position, but entries() and highest() must return the new value object
+                find(key, previous).value = value;
+                return previous;
+            }
+            root = delete(root, key, previous);
+        }
+        root = insert(root, key, value);
+        return previous;
+    }
+
+    public V get(K key) {
+        return index.get(key);
+    }
+
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    public V remove(K key) {
+        V previous = index.remove(key);
+        if (previous != null) {
+            root = delete(root, key, previous);
+        }
+        return previous;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    // Position of the key in ascending (value, key) order, or -1 when absent
+    public int rank(K key) {
+        V value = index.get(key);
+        if (value == null) {
+            return -1;
+        }
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(key, value, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left);
+                if (cmp == 0) {
+                    return rank;
+                }
+                rank++;
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("Index and tree are out of sync for " + key);
+    }
+
+    // Position in descending order, 0 is the highest value (leaderboard place minus one)
+    public int descendingRank(K key) {
+        int rank = rank(key);
+        return rank < 0 ? -1 : size() - 1 - rank;
+    }
+
+    // Entry at the given position in ascending order
+    public Map.Entry<K, V> entryAt(int rank) {
+        Objects.checkIndex(rank, size());
+        Node<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    public Map.Entry<K, V> first() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return entryAt(0);
+    }
+
+    public Map.Entry<K, V> last() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return entryAt(size() - 1);
+    }
+
+    // The n highest entries, highest first: O(log n + count)
+    public List<Map.Entry<K, V>> highest(int n) {
+        List<Map.Entry<K, V>> result = new ArrayList<>(Math.min(n, size()));
+        collectDescending(root, result, n);
+        return result;
+    }
+
+    // The n lowest entries, lowest first: O(log n + count)
+    public List<Map.Entry<K, V>> lowest(int n) {
+        List<Map.Entry<K, V>> result = new ArrayList<>(Math.min(n, size()));
+        collectAscending(root, result, n);
+        return result;
+    }
+
+    // All entries in ascending (value, key) order
+    public List<Map.Entry<K, V>> entries() {
+        return lowest(size());
+    }
+
+    @Override
+    public String toString() {
+        return entries().toString();
+    }
+
+    private void collectAscending(Node<K, V> node, List<Map.Entry<K, V>> result, int limit) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        collectAscending(node.left, result, limit);
+        if (result.size() < limit) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+            collectAscending(node.right, result, limit);
+        }
+    }
+
+    private void collectDescending(Node<K, V> node, List<Map.Entry<K, V>> result, int limit) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        collectDescending(node.right, result, limit);
+        if (result.size() < limit) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+            collectDescending(node.left, result, limit);
+        }
+    }
+
+    private Node<K, V> find(K key, V value) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(key, value, node);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        throw new IllegalStateException("Index and tree are out of sync for " + key);
+    }
+
+    private int compare(K key, V value, Node<K, V> node) {
+        int cmp = value.compareTo(node.value);
+        return cmp != 0 ? cmp : key.compareTo(node.key);
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value);
+        }
+        if (compare(key, value, node) < 0) {
+            node.left = insert(node.left, key, value);
+        } else {
+            node.right = insert(node.right, key, value);
+        }
+        return balance(node);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            throw new IllegalStateException("Index and tree are out of sync for " + key);
+        }
+        int cmp = compare(key, value, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, key, value);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, key, value);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace the node by its successor, the minimum of the right subtree
+            Node<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node<K, V> deleteMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private Node<K, V> balance(Node<K, V> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<K, V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
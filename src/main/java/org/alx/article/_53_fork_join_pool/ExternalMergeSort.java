@@ -0,0 +1,311 @@
+package org.alx.article._53_fork_join_pool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+// Sorts a binary file of ints that does not fit into the heap:
+// 1. read fixed-size runs through a FileChannel and sort each one with ForkJoinMergeSort
+// 2. spill every sorted run to a temporary file
+// 3. merge all runs with a k-way loser tree, prefetching the next block of every run asynchronously
+public class ExternalMergeSort implements AutoCloseable {
+    private final int runSize;    // ints per in-memory run
+    private final int bufferSize; // ints per read/write buffer during the merge
+    private final ForkJoinPool pool = new ForkJoinPool();
+    private final ExecutorService ioExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "external-sort-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExternalMergeSort(int runSize, int bufferSize) {
+        if (runSize <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("runSize and bufferSize must be positive");
+        }
+        this.runSize = runSize;
+        this.bufferSize = bufferSize;
+    }
+
+    public void sort(Path input, Path output) throws IOException {
+        List<Path> runs = createRuns(input);
+        try {
+            merge(runs, output);
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private List<Path> createRuns(Path input) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(runSize * Integer.BYTES);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            while (fill(in, buffer) > 0) {
+                if (buffer.remaining() % Integer.BYTES != 0) {
+                    throw new IOException("File size is not a multiple of " + Integer.BYTES + ": " + input);
+                }
+                int[] run = new int[buffer.remaining() / Integer.BYTES];
+                buffer.asIntBuffer().get(run);
+
+                // Each run is sorted in parallel with the in-memory fork-join sorter
+                pool.invoke(new ForkJoinMergeSort.MergeSortTask(run, 0, run.length - 1));
+
+                runs.add(spill(run, buffer));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            throw e;
+        }
+        return runs;
+    }
+
+    private Path spill(int[] run, ByteBuffer buffer) throws IOException {
+        Path file = Files.createTempFile("external-sort-run-", ".bin");
+        buffer.clear();
+        buffer.asIntBuffer().put(run);
+        buffer.limit(run.length * Integer.BYTES);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+        return file;
+    }
+
+    private void merge(List<Path> runs, Path output) throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path run : runs) {
+                readers.add(new RunReader(run));
+            }
+            if (readers.isEmpty()) {
+                return;
+            }
+
+            LoserTree tree = new LoserTree(readers.toArray(new RunReader[0]));
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize * Integer.BYTES);
+            while (tree.hasNext()) {
+                if (!buffer.hasRemaining()) {
+                    flush(out, buffer);
+                }
+                buffer.putInt(tree.next());
+            }
+            flush(out, buffer);
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Reads until the buffer is full or the channel is exhausted, leaves the buffer flipped
+    private static int fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // keep reading
+        }
+        buffer.flip();
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    // Double-buffered reader: while the merge consumes one block, the next one is read in the background
+    private final class RunReader implements Closeable {
+        private final FileChannel channel;
+        private ByteBuffer current;
+        private ByteBuffer spare;
+        private IntBuffer ints;
+        private CompletableFuture<ByteBuffer> next;
+
+        RunReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            current = ByteBuffer.allocateDirect(bufferSize * Integer.BYTES);
+            spare = ByteBuffer.allocateDirect(bufferSize * Integer.BYTES);
+            fill(channel, current);
+            ints = current.asIntBuffer();
+            next = prefetch(spare);
+        }
+
+        boolean hasNext() {
+            if (!ints.hasRemaining() && next != null) {
+                advance();
+            }
+            return ints.hasRemaining();
+        }
+
+        int next() {
+            return ints.get();
+        }
+
+        private void advance() {
+            ByteBuffer filled;
+            try {
+                filled = next.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof UncheckedIOException io ? io : e;
+            }
+            if (!filled.hasRemaining()) {
+                next = null; // run exhausted
+                return;
+            }
+            spare = current;
+            current = filled;
+            ints = current.asIntBuffer();
+            next = prefetch(spare);
+        }
+
+        private CompletableFuture<ByteBuffer> prefetch(ByteBuffer target) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    fill(channel, target);
+                    return target;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, ioExecutor);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (next != null) {
+                next.exceptionally(e -> null).join(); // do not close the channel under a pending read
+            }
+            channel.close();
+        }
+    }
+
+    // Tournament tree of losers: tree[0] holds the winning run, tree[1..k-1] the losers of each match.
+    // Replacing the winner only replays the matches on its leaf-to-root path, log2(k) comparisons.
+    private static final class LoserTree {
+        private final RunReader[] runs;
+        private final int[] heads;
+        private final boolean[] exhausted;
+        private final int[] tree;
+        private final int k;
+
+        LoserTree(RunReader[] runs) {
+            this.runs = runs;
+            this.k = runs.length;
+            this.heads = new int[k];
+            this.exhausted = new boolean[k];
+            this.tree = new int[k];
+
+            for (int i = 0; i < k; i++) {
+                load(i);
+            }
+            // Index k is a virtual run smaller than everything, it gets pushed out while the tree is built
+            Arrays.fill(tree, k);
+            for (int i = k - 1; i >= 0; i--) {
+                adjust(i);
+            }
+        }
+
+        boolean hasNext() {
+            return !exhausted[tree[0]];
+        }
+
+        int next() {
+            int winner = tree[0];
+            int value = heads[winner];
+            load(winner);
+            adjust(winner);
+            return value;
+        }
+
+        private void load(int run) {
+            if (runs[run].hasNext()) {
+                heads[run] = runs[run].next();
+            } else {
+                exhausted[run] = true;
+            }
+        }
+
+        private void adjust(int run) {
+            int winner = run;
+            for (int parent = (run + k) >> 1; parent > 0; parent >>= 1) {
+                if (less(tree[parent], winner)) {
+                    int loser = winner;
+                    winner = tree[parent];
+                    tree[parent] = loser;
+                }
+            }
+            tree[0] = winner;
+        }
+
+        private boolean less(int a, int b) {
+            if (a == k || b == k) {
+                return a == k;
+            }
+            if (exhausted[a] || exhausted[b]) {
+                return !exhausted[a];
+            }
+            return heads[a] < heads[b] || (heads[a] == heads[b] && a < b);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = 2_000_000;
+        Path input = Files.createTempFile("external-sort-input-", ".bin");
+        Path output = Files.createTempFile("external-sort-output-", ".bin");
+
+        Random random = new Random(42);
+        ByteBuffer buffer = ByteBuffer.allocate(size * Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(random.nextInt());
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        long start = System.nanoTime();
+        try (ExternalMergeSort sorter = new ExternalMergeSort(250_000, 16_384)) {
+            sorter.sort(input, output);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        IntBuffer sorted = ByteBuffer.wrap(Files.readAllBytes(output)).asIntBuffer();
+        boolean ordered = sorted.remaining() == size;
+        for (int i = 1; i < sorted.limit() && ordered; i++) {
+            ordered = sorted.get(i - 1) <= sorted.get(i);
+        }
+        System.out.println("Sorted " + size + " ints in " + elapsedMs + " ms, ordered: " + ordered);
+
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+}
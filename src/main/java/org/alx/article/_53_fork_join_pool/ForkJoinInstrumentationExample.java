@@ -0,0 +1,54 @@
+package org.alx.article._53_fork_join_pool;
+
+import java.util.Arrays;
+
+public class ForkJoinInstrumentationExample {
+
+    public static void main(String[] args) {
+        long[] array = new long[20_000_000];
+        Arrays.fill(array, 1);
+
+        InstrumentedForkJoinPool pool = new InstrumentedForkJoinPool(4);
+        for (int threshold : new int[]{1_000, 100_000, 1_000_000}) {
+            pool.reset();
+            long sum = pool.invoke(new SumTask(array, 0, array.length, threshold));
+            System.out.println("threshold=" + threshold + " sum=" + sum);
+            System.out.println(pool.report());
+            System.out.println();
+        }
+        pool.shutdown();
+    }
+
+    // Same split as ParallelComputationExample.SumTask, with the threshold as a parameter
+    static class SumTask extends InstrumentedRecursiveTask<Long> {
+        private final long[] array;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        SumTask(long[] array, int start, int end, int threshold) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Long computeTask() {
+            if (end - start <= threshold) {
+                return leaf(end - start, () -> {
+                    long sum = 0;
+                    for (int i = start; i < end; i++) {
+                        sum += array[i];
+                    }
+                    return sum;
+                });
+            }
+            int mid = (start + end) >>> 1;
+            SumTask leftTask = new SumTask(array, start, mid, threshold);
+            SumTask rightTask = new SumTask(array, mid, end, threshold);
+            leftTask.fork();
+            return rightTask.compute() + leftTask.join();
+        }
+    }
+}
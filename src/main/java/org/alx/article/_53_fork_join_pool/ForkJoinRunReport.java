@@ -0,0 +1,92 @@
+package org.alx.article._53_fork_join_pool;
+
+import java.util.List;
+
+// Snapshot of one instrumented run: per-worker counters, leaf size distribution and a threshold suggestion
+public class ForkJoinRunReport {
+    // A leaf should run long enough to amortize task creation and stealing, tens of microseconds is plenty
+    private static final long TARGET_LEAF_NANOS = 50_000;
+    // and there should be enough leaves for every worker to steal from the others
+    private static final int LEAVES_PER_WORKER = 8;
+
+    private final int parallelism;
+    private final List<InstrumentedForkJoinPool.WorkerStats> workers;
+
+    ForkJoinRunReport(int parallelism, List<InstrumentedForkJoinPool.WorkerStats> workers) {
+        this.parallelism = parallelism;
+        this.workers = workers;
+    }
+
+    public long tasksCreated() {
+        return workers.stream().mapToLong(w -> w.created).sum();
+    }
+
+    public long tasksExecuted() {
+        return workers.stream().mapToLong(w -> w.executed).sum();
+    }
+
+    public long steals() {
+        return workers.stream().mapToLong(w -> w.stolen).sum();
+    }
+
+    public long leaves() {
+        return workers.stream().mapToLong(w -> w.leaves).sum();
+    }
+
+    public long leafElements() {
+        return workers.stream().mapToLong(w -> w.leafElements).sum();
+    }
+
+    public long busyNanos() {
+        return workers.stream().mapToLong(w -> w.busyNanos).sum();
+    }
+
+    // Busiest worker divided by the average one, 1.0 means perfectly balanced
+    public double imbalance() {
+        long max = workers.stream().mapToLong(w -> w.busyNanos).max().orElse(0);
+        long active = workers.stream().filter(w -> w.busyNanos > 0).count();
+        return active == 0 ? 1.0 : max / ((double) busyNanos() / Math.max(active, parallelism));
+    }
+
+    // Largest leaf size that still lasts about TARGET_LEAF_NANOS,
+    // capped so that every worker gets LEAVES_PER_WORKER leaves to balance with
+    public int suggestedThreshold() {
+        long elements = leafElements();
+        if (elements == 0 || busyNanos() == 0) {
+            return 0;
+        }
+        double nanosPerElement = (double) busyNanos() / elements;
+        long byDuration = Math.max(1, (long) (TARGET_LEAF_NANOS / nanosPerElement));
+        long byBalance = Math.max(1, elements / ((long) parallelism * LEAVES_PER_WORKER));
+        return (int) Math.min(Integer.MAX_VALUE, Math.min(byDuration, byBalance));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        long origin = workers.stream().filter(w -> w.leaves > 0).mapToLong(w -> w.firstStart).min().orElse(0);
+        sb.append(String.format("tasks created=%d executed=%d stolen=%d leaves=%d imbalance=%.2f%n",
+                tasksCreated(), tasksExecuted(), steals(), leaves(), imbalance()));
+        sb.append(String.format("%-32s %10s %10s %8s %8s %10s %12s%n",
+                "worker", "created", "executed", "stolen", "leaves", "busy(us)", "active(us)"));
+        for (InstrumentedForkJoinPool.WorkerStats w : workers) {
+            String active = w.leaves == 0 ? "-"
+                    : (w.firstStart - origin) / 1_000 + ".." + (w.lastEnd - origin) / 1_000;
+            sb.append(String.format("%-32s %10d %10d %8d %8d %10d %12s%n",
+                    w.name, w.created, w.executed, w.stolen, w.leaves, w.busyNanos / 1_000, active));
+        }
+        sb.append("leaf sizes:");
+        for (int bucket = 0; bucket < InstrumentedForkJoinPool.SIZE_BUCKETS; bucket++) {
+            long count = 0;
+            for (InstrumentedForkJoinPool.WorkerStats w : workers) {
+                count += w.leafSizes[bucket];
+            }
+            if (count > 0) {
+                long upper = bucket == 0 ? 0 : (1L << bucket) - 1;
+                sb.append(' ').append("<=").append(upper).append(':').append(count);
+            }
+        }
+        sb.append(System.lineSeparator()).append("suggested threshold: ").append(suggestedThreshold());
+        return sb.toString();
+    }
+}
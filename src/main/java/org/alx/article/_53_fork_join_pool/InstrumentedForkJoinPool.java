@@ -0,0 +1,104 @@
+package org.alx.article._53_fork_join_pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+// ForkJoinPool that collects statistics from InstrumentedRecursiveTask instances running in it.
+// Every thread writes only into its own WorkerStats (plain fields, no atomics), the numbers are
+// read by report() once the pool is quiescent, e.g. after invoke() returned.
+public class InstrumentedForkJoinPool extends ForkJoinPool {
+    static final int SIZE_BUCKETS = 32; // leaf sizes are bucketed by powers of two
+
+    private final Queue<WorkerStats> workers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<WorkerStats> local = ThreadLocal.withInitial(this::register);
+
+    public InstrumentedForkJoinPool(int parallelism) {
+        super(parallelism);
+    }
+
+    public InstrumentedForkJoinPool() {
+        super();
+    }
+
+    WorkerStats stats() {
+        return local.get();
+    }
+
+    private WorkerStats register() {
+        WorkerStats stats = new WorkerStats(Thread.currentThread().getName());
+        workers.add(stats);
+        return stats;
+    }
+
+    public ForkJoinRunReport report() {
+        List<WorkerStats> snapshot = new ArrayList<>();
+        for (WorkerStats stats : workers) {
+            snapshot.add(stats.copy());
+        }
+        return new ForkJoinRunReport(getParallelism(), snapshot);
+    }
+
+    // Call between runs, while no instrumented task is executing
+    public void reset() {
+        for (WorkerStats stats : workers) {
+            stats.clear();
+        }
+    }
+
+    static final class WorkerStats {
+        final String name;
+        long created;
+        long executed;
+        long stolen;
+        long leaves;
+        long leafElements;
+        long busyNanos;
+        long firstStart;
+        long lastEnd;
+        long[] leafSizes = new long[SIZE_BUCKETS];
+
+        WorkerStats(String name) {
+            this.name = name;
+        }
+
+        void leaf(int size, long start, long end) {
+            leaves++;
+            leafElements += size;
+            busyNanos += end - start;
+            leafSizes[size <= 0 ? 0 : Math.min(SIZE_BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(size))]++;
+            if (firstStart == 0 || start < firstStart) {
+                firstStart = start;
+            }
+            lastEnd = Math.max(lastEnd, end);
+        }
+
+        WorkerStats copy() {
+            WorkerStats copy = new WorkerStats(name);
+            copy.created = created;
+            copy.executed = executed;
+            copy.stolen = stolen;
+            copy.leaves = leaves;
+            copy.leafElements = leafElements;
+            copy.busyNanos = busyNanos;
+            copy.firstStart = firstStart;
+            copy.lastEnd = lastEnd;
+            copy.leafSizes = leafSizes.clone();
+            return copy;
+        }
+
+        void clear() {
+            created = 0;
+            executed = 0;
+            stolen = 0;
+            leaves = 0;
+            leafElements = 0;
+            busyNanos = 0;
+            firstStart = 0;
+            lastEnd = 0;
+            leafSizes = new long[SIZE_BUCKETS];
+        }
+    }
+}
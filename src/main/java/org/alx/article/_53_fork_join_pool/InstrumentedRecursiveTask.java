@@ -0,0 +1,52 @@
+package org.alx.article._53_fork_join_pool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+// RecursiveTask that reports to an InstrumentedForkJoinPool:
+// - a task counts as created by the thread that constructed it and as executed by the one that computes it
+// - when the two differ, the task was stolen
+// - work wrapped into leaf(size, work) feeds the leaf size distribution and the worker busy time
+// Outside of an InstrumentedForkJoinPool the task behaves like a plain RecursiveTask.
+public abstract class InstrumentedRecursiveTask<V> extends RecursiveTask<V> {
+    private final InstrumentedForkJoinPool.WorkerStats creator;
+
+    protected InstrumentedRecursiveTask() {
+        InstrumentedForkJoinPool.WorkerStats stats = currentStats();
+        if (stats != null) {
+            stats.created++;
+        }
+        this.creator = stats;
+    }
+
+    protected abstract V computeTask();
+
+    @Override
+    protected final V compute() {
+        InstrumentedForkJoinPool.WorkerStats stats = currentStats();
+        if (stats != null) {
+            stats.executed++;
+            if (creator != null && creator != stats) {
+                stats.stolen++;
+            }
+        }
+        return computeTask();
+    }
+
+    protected final V leaf(int size, Supplier<V> work) {
+        InstrumentedForkJoinPool.WorkerStats stats = currentStats();
+        if (stats == null) {
+            return work.get();
+        }
+        long start = System.nanoTime();
+        V result = work.get();
+        stats.leaf(size, start, System.nanoTime());
+        return result;
+    }
+
+    private static InstrumentedForkJoinPool.WorkerStats currentStats() {
+        ForkJoinPool pool = getPool();
+        return pool instanceof InstrumentedForkJoinPool instrumented ? instrumented.stats() : null;
+    }
+}
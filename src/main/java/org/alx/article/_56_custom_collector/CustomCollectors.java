@@ -0,0 +1,234 @@
+package org.alx.article._56_custom_collector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+public class CustomCollectors {
+
+    public static <T> Collector<T, List<T>, List<T>> toUnmodifiableList() {
+        return new Collector<T, List<T>, List<T>>() {
+            @Override
+            public Supplier<List<T>> supplier() {
+                return ArrayList::new;
+            }
+
+            @Override
+            public BiConsumer<List<T>, T> accumulator() {
+                return List::add;
+            }
+
+            @Override
+            public BinaryOperator<List<T>> combiner() {
+                return (list1, list2) -> {
+                    list1.addAll(list2);
+                    return list1;
+                };
+            }
+
+            @Override
+            public Function<List<T>, List<T>> finisher() {
+                return Collections::unmodifiableList;
+            }
+
+            @Override
+            public Set<Characteristics> characteristics() {
+                return Collections.emptySet();
+            }
+        };
+    }
+
+    // Pre-sized collectors: expectedSize is the capacity every container starts with, so the target never resizes.
+    // For a sequential stream pass the size of a SIZED source (e.g. list.size()). A parallel stream creates one
+    // container per leaf task, so pass what one leaf collects there (roughly size / (4 * parallelism)),
+    // the combiner then grows the left container at most once per merge.
+
+    public static <T> Collector<T, ?, List<T>> toList(int expectedSize) {
+        return Collector.of(
+                () -> new ArrayList<T>(expectedSize),
+                List::add,
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                });
+    }
+
+    public static <T, K, V> Collector<T, ?, Map<K, V>> toMap(Function<? super T, ? extends K> keyMapper,
+                                                            Function<? super T, ? extends V> valueMapper,
+                                                            int expectedSize) {
+        return Collector.of(
+                () -> HashMap.<K, V>newHashMap(expectedSize),
+                (map, element) -> putUnique(map, keyMapper.apply(element), valueMapper.apply(element)),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    private static <K, V> void putUnique(Map<K, V> map, K key, V value) {
+        if (map.putIfAbsent(key, value) != null) {
+            throw new IllegalStateException("Duplicate key " + key);
+        }
+    }
+
+    // Primitive list collectors, the values are never boxed
+
+    public static <T> Collector<T, ?, IntList> toIntList(ToIntFunction<? super T> mapper) {
+        return Collector.of(
+                IntList::new,
+                (list, element) -> list.add(mapper.applyAsInt(element)),
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    public static <T> Collector<T, ?, LongList> toLongList(ToLongFunction<? super T> mapper) {
+        return Collector.of(
+                LongList::new,
+                (list, element) -> list.add(mapper.applyAsLong(element)),
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    // Concurrent grouping: one shared container split into stripes, each a plain HashMap behind its own lock.
+    // Threads adding elements with keys in different stripes never contend, and in a parallel stream
+    // there are no per-thread maps to merge at the end.
+
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingByStriped(Function<? super T, ? extends K> classifier,
+                                                                           int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        return Collector.of(
+                () -> new StripedGroups<K, T>(stripes),
+                (groups, element) -> groups.add(classifier.apply(element), element),
+                StripedGroups::merge,
+                StripedGroups::toMap,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingByStriped(Function<? super T, ? extends K> classifier) {
+        return groupingByStriped(classifier, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    private static final class StripedGroups<K, T> {
+        private final Map<K, List<T>>[] stripes;
+
+        StripedGroups(int count) {
+            @SuppressWarnings("unchecked")
+            Map<K, List<T>>[] maps = (Map<K, List<T>>[]) new Map<?, ?>[count];
+            stripes = maps;
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new HashMap<>();
+            }
+        }
+
+        void add(K key, T element) {
+            int hash = key == null ? 0 : key.hashCode();
+            Map<K, List<T>> stripe = stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+            synchronized (stripe) {
+                stripe.computeIfAbsent(key, k -> new ArrayList<>()).add(element);
+            }
+        }
+
+        StripedGroups<K, T> merge(StripedGroups<K, T> other) {
+            for (Map<K, List<T>> stripe : other.stripes) {
+                stripe.forEach((key, elements) -> elements.forEach(element -> add(key, element)));
+            }
+            return this;
+        }
+
+        Map<K, List<T>> toMap() {
+            int size = 0;
+            for (Map<K, List<T>> stripe : stripes) {
+                size += stripe.size();
+            }
+            Map<K, List<T>> result = HashMap.newHashMap(size);
+            for (Map<K, List<T>> stripe : stripes) {
+                result.putAll(stripe);
+            }
+            return result;
+        }
+    }
+
+    // Single-pass count, sum, min, max and mean into a primitive accumulator
+
+    public record Summary(long count, long sum, long min, long max) {
+        public double mean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+    }
+
+    public static <T> Collector<T, ?, Summary> summarizing(ToLongFunction<? super T> mapper) {
+        return Collector.of(
+                SummaryAccumulator::new,
+                (accumulator, element) -> accumulator.add(mapper.applyAsLong(element)),
+                SummaryAccumulator::merge,
+                SummaryAccumulator::toSummary);
+    }
+
+    private static final class SummaryAccumulator {
+        private long count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        void add(long value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        SummaryAccumulator merge(SummaryAccumulator other) {
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+
+        Summary toSummary() {
+            return count == 0 ? new Summary(0, 0, 0, 0) : new Summary(count, sum, min, max);
+        }
+    }
+
+    public static void main(String[] args) {
+        List<String> result = List.of("a", "b", "c")
+                .stream()
+                .collect(toUnmodifiableList());
+        System.out.println(result);
+
+        List<String> words = IntStream.range(0, 1_000_000).mapToObj(i -> "word" + (i % 1000)).toList();
+
+        List<String> copy = words.stream().collect(toList(words.size()));
+        Map<Integer, String> byIndex = IntStream.range(0, words.size()).boxed()
+                .collect(toMap(Function.identity(), words::get, words.size()));
+        IntList lengths = words.stream().collect(toIntList(String::length));
+        Map<String, List<String>> groups = words.parallelStream().collect(groupingByStriped(Function.identity()));
+        Summary summary = words.stream().collect(summarizing(String::length));
+
+        System.out.println("Copied: " + copy.size() + ", by index: " + byIndex.size()
+                + ", lengths: " + lengths.size() + ", groups: " + groups.size());
+        System.out.println("Length summary: " + summary + ", mean " + summary.mean());
+        System.out.println("Sum of lengths: " + lengths.stream().asLongStream().sum());
+    }
+}
@@ -0,0 +1,139 @@
+package org.alx.article._57_merging_two_maps;
+
+import org.alx.article._42_choosing_the_right_collection_in_java.IntObjectHashMap;
+import org.apache.commons.collections4.MapUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// The six approaches of this package against MapMergeEngine, two maps with `entries` entries in total
+// and 10% of the keys present in both
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class MapMergeBenchmark {
+
+    @Param({"10000000"})
+    private int entries;
+
+    private Map<Integer, Person> map1;
+    private Map<Integer, Person> map2;
+    private MapMergeEngine engine;
+    private IntObjectHashMap<Person> primitiveMap1;
+    private IntObjectHashMap<Person> primitiveMap2;
+
+    @Setup
+    public void setUp() {
+        int half = entries / 2;
+        int overlap = entries / 10;
+        map1 = new HashMap<>();
+        map2 = new HashMap<>();
+        for (int i = 0; i < half; i++) {
+            map1.put(i, new Person(i, "Person" + i));
+        }
+        for (int i = half - overlap; i < entries - overlap; i++) {
+            map2.put(i, new Person(i, "Person" + i));
+        }
+        engine = new MapMergeEngine();
+        primitiveMap1 = new IntObjectHashMap<>(map1.size());
+        map1.forEach(primitiveMap1::put);
+        primitiveMap2 = new IntObjectHashMap<>(map2.size());
+        map2.forEach(primitiveMap2::put);
+    }
+
+    @Benchmark
+    public Map<Integer, Person> putAll() {
+        Map<Integer, Person> mergedMap = new HashMap<>(map1);
+        mergedMap.putAll(map2);
+        return mergedMap;
+    }
+
+    @Benchmark
+    public Map<Integer, Person> mergeMethod() {
+        Map<Integer, Person> mergedMap = new HashMap<>(map1);
+        map2.forEach((key, value) -> mergedMap.merge(key, value, (existingValue, newValue) -> newValue));
+        return mergedMap;
+    }
+
+    @Benchmark
+    public Map<Integer, Person> streamConcat() {
+        return Stream.concat(map1.entrySet().stream(), map2.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (value1, value2) -> value2));
+    }
+
+    @Benchmark
+    public Map<Integer, Person> streamOf() {
+        return Stream.of(map1, map2)
+                .flatMap(map -> map.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v2));
+    }
+
+    @Benchmark
+    public Map<Integer, Person> putIfAbsent() {
+        Map<Integer, Person> mergedMap = new HashMap<>(map1);
+        map2.forEach(mergedMap::putIfAbsent);
+        return mergedMap;
+    }
+
+    @Benchmark
+    public Map<Integer, Person> apacheMapUtils() {
+        Object[] array = new Object[map2.size() * 2];
+        int j = 0;
+        for (Map.Entry<Integer, Person> entry : map2.entrySet()) {
+            array[j++] = entry.getKey();
+            array[j++] = entry.getValue();
+        }
+        return MapUtils.putAll(new HashMap<>(map1), array);
+    }
+
+    @Benchmark
+    public Map<Integer, Person> engineMerge() {
+        return engine.merge(List.of(map1, map2), MapMergeEngine.keepLast());
+    }
+
+    @Benchmark
+    public Map<Integer, Person> engineMergeParallel() {
+        return engine.mergeParallel(List.of(map1, map2), MapMergeEngine.keepLast());
+    }
+
+    @Benchmark
+    public Map<Integer, Person> engineMergeSharded() {
+        return engine.mergeSharded(List.of(map1, map2), MapMergeEngine.keepLast());
+    }
+
+    // Same merge with int keys: no boxing, no entry objects, and the second map is copied array to array
+    @Benchmark
+    public IntObjectHashMap<Person> primitivePutAll() {
+        IntObjectHashMap<Person> mergedMap = new IntObjectHashMap<>(map1.size() + map2.size());
+        mergedMap.putAll(primitiveMap1);
+        mergedMap.putAll(primitiveMap2);
+        return mergedMap;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapMergeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+package org.alx.article._57_merging_two_maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+
+// Merges any number of maps at once:
+// - the result is created with the capacity for the combined size, so it never rehashes
+// - conflicts are resolved by a policy, applied in the order of the source maps
+// - in parallel mode keys are partitioned by hash in two passes: one task per source map scatters its entries
+//   into a bucket per shard, then worker i builds shard i from bucket i of every source, in source order.
+//   Every entry is looked at once per pass, workers never touch the same map and no locking is needed
+public class MapMergeEngine {
+    private final ForkJoinPool pool;
+    private final int shards;
+
+    public MapMergeEngine(ForkJoinPool pool, int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        }
+        this.pool = pool;
+        this.shards = shards;
+    }
+
+    public MapMergeEngine() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism());
+    }
+
+    // Conflict policies, called as policy.apply(existingValue, newValue)
+
+    public static <V> BinaryOperator<V> keepFirst() {
+        return (existing, added) -> existing;
+    }
+
+    public static <V> BinaryOperator<V> keepLast() {
+        return (existing, added) -> added;
+    }
+
+    public static <V> BinaryOperator<V> failOnConflict() {
+        return (existing, added) -> {
+            throw new IllegalStateException("Conflicting values " + existing + " and " + added);
+        };
+    }
+
+    public <K, V> Map<K, V> merge(List<? extends Map<? extends K, ? extends V>> maps, BinaryOperator<V> policy) {
+        Map<K, V> result = HashMap.newHashMap(combinedSize(maps));
+        for (Map<? extends K, ? extends V> map : maps) {
+            map.forEach((key, value) -> result.merge(key, value, policy));
+        }
+        return result;
+    }
+
+    // Parallel merge returning a read-only view over the shards, nothing is copied after the workers finish
+    public <K, V> ShardedMap<K, V> mergeSharded(List<? extends Map<? extends K, ? extends V>> maps,
+                                               BinaryOperator<V> policy) {
+        List<ForkJoinTask<Bucket[]>> scatters = new ArrayList<>(maps.size());
+        for (Map<? extends K, ? extends V> map : maps) {
+            scatters.add(pool.submit(() -> scatter(map)));
+        }
+        List<Bucket[]> buckets = new ArrayList<>(maps.size());
+        for (ForkJoinTask<Bucket[]> task : scatters) {
+            buckets.add(task.join());
+        }
+
+        int shardSize = combinedSize(maps) / shards + 1;
+        List<ForkJoinTask<Map<K, V>>> tasks = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = i;
+            tasks.add(pool.submit(() -> {
+                Map<K, V> result = HashMap.newHashMap(shardSize);
+                for (Bucket[] source : buckets) {
+                    source[shard].mergeInto(result, policy);
+                }
+                return result;
+            }));
+        }
+
+        List<Map<K, V>> results = new ArrayList<>(shards);
+        for (ForkJoinTask<Map<K, V>> task : tasks) {
+            results.add(task.join());
+        }
+        return new ShardedMap<>(results);
+    }
+
+    // Parallel merge into one HashMap: shards are built in parallel, then copied into a pre-sized map.
+    // Keys are unique across shards, so the copy needs no conflict handling.
+    public <K, V> Map<K, V> mergeParallel(List<? extends Map<? extends K, ? extends V>> maps, BinaryOperator<V> policy) {
+        ShardedMap<K, V> sharded = mergeSharded(maps, policy);
+        Map<K, V> result = HashMap.newHashMap(sharded.size());
+        for (Map<K, V> shard : sharded.shards()) {
+            result.putAll(shard);
+        }
+        return result;
+    }
+
+    private Bucket[] scatter(Map<?, ?> map) {
+        Bucket[] buckets = new Bucket[shards];
+        int bucketCapacity = map.size() / shards + 1;
+        for (int i = 0; i < shards; i++) {
+            buckets[i] = new Bucket(bucketCapacity);
+        }
+        map.forEach((key, value) -> buckets[ShardedMap.shardOf(key, shards)].add(key, value));
+        return buckets;
+    }
+
+    // Entries of one source map that belong to one shard, keys and values interleaved in one array
+    // so scattering allocates no Map.Entry per entry
+    private static final class Bucket {
+        private Object[] items;
+        private int size;
+
+        Bucket(int expectedEntries) {
+            items = new Object[2 * expectedEntries];
+        }
+
+        void add(Object key, Object value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, Math.max(8, size * 2));
+            }
+            items[size++] = key;
+            items[size++] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        <K, V> void mergeInto(Map<K, V> result, BinaryOperator<V> policy) {
+            for (int i = 0; i < size; i += 2) {
+                result.merge((K) items[i], (V) items[i + 1], policy);
+            }
+        }
+    }
+
+    private static int combinedSize(List<? extends Map<?, ?>> maps) {
+        long size = 0;
+        for (Map<?, ?> map : maps) {
+            size += map.size();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    public static void main(String[] args) {
+        Map<Integer, Person> map1 = new HashMap<>();
+        map1.put(1, new Person(1, "Alice"));
+        map1.put(2, new Person(2, "Bob"));
+
+        Map<Integer, Person> map2 = new HashMap<>();
+        map2.put(3, new Person(3, "Charlie"));
+        map2.put(4, new Person(4, "David"));
+        map2.put(2, new Person(2, "John"));
+
+        Map<Integer, Person> map3 = new HashMap<>();
+        map3.put(5, new Person(5, "Eve"));
+        map3.put(1, new Person(1, "Frank"));
+
+        MapMergeEngine engine = new MapMergeEngine();
+        BinaryOperator<Person> joinNames = (existing, added) ->
+                new Person(existing.getId(), existing.getName() + " & " + added.getName());
+
+        System.out.println("Merged map: " + engine.merge(List.of(map1, map2, map3), joinNames));
+        System.out.println("Sharded view: " + engine.mergeSharded(List.of(map1, map2, map3), MapMergeEngine.keepFirst()));
+        System.out.println("Parallel merge: " + engine.mergeParallel(List.of(map1, map2, map3), MapMergeEngine.keepLast()));
+    }
+}
@@ -0,0 +1,88 @@
+package org.alx.article._57_merging_two_maps;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Read-only map over disjoint shards produced by MapMergeEngine.mergeSharded.
+// A key always lives in shard shardOf(key), so a lookup touches exactly one shard.
+public class ShardedMap<K, V> extends AbstractMap<K, V> {
+    private final List<Map<K, V>> shards;
+    private final int size;
+
+    ShardedMap(List<Map<K, V>> shards) {
+        this.shards = shards;
+        int total = 0;
+        for (Map<K, V> shard : shards) {
+            total += shard.size();
+        }
+        this.size = total;
+    }
+
+    // Taken from the high half of a multiplicative mix of the hash: HashMap picks its bucket from the low bits,
+    // so choosing the shard from those would leave every shard map using only 1 / shards of its buckets.
+    // The mix is scaled to [0, shards) with a multiply instead of a modulo, so any shard count works.
+    static int shardOf(Object key, int shards) {
+        int hash = key == null ? 0 : key.hashCode();
+        long mixed = ((hash & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L) >>> 32;
+        return (int) ((mixed * shards) >>> 32);
+    }
+
+    List<Map<K, V>> shards() {
+        return shards;
+    }
+
+    @Override
+    public V get(Object key) {
+        return shards.get(shardOf(key, shards.size())).get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return shards.get(shardOf(key, shards.size())).containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<>() {
+                    private int shard;
+                    private Iterator<Entry<K, V>> current = Collections.emptyIterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!current.hasNext() && shard < shards.size()) {
+                            current = Collections.unmodifiableMap(shards.get(shard++)).entrySet().iterator();
+                        }
+                        return current.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return current.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
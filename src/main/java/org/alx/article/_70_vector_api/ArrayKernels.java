@@ -0,0 +1,43 @@
+package org.alx.article._70_vector_api;
+
+// Array loops from the algorithm articles (ParallelComputationExample.SumTask, PrefixSumExample.findPrefix,
+// RadixSort.countingSort, BinarySearch) as kernels with a scalar and a SIMD implementation.
+public interface ArrayKernels {
+
+    long sum(int[] array);
+
+    long sum(long[] array);
+
+    int min(int[] array);
+
+    int max(int[] array);
+
+    // Same layout as PrefixSumExample.findPrefix: prefix[0] = 0, prefix[i + 1] = a[0] + ... + a[i]
+    int[] prefixSum(int[] array);
+
+    // Adds the occurrences of every decimal digit (value / exp) % 10 to count, count has 10 slots
+    void digitCounts(int[] array, int exp, int[] count);
+
+    // Index of target in the sorted array or -1, like BinarySearch.binarySearch
+    int binarySearch(int[] sorted, int target);
+
+    String name();
+
+    // The Vector API lives in an incubator module, it is used only when the JVM was started with
+    // --add-modules jdk.incubator.vector and the hardware has vectors wider than one int.
+    // Even then only the kernels that measured faster with SIMD use it, see RoutedArrayKernels.
+    // -Dkernels.scalar=true forces the scalar version.
+    static ArrayKernels select() {
+        if (!Boolean.getBoolean("kernels.scalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                if (VectorArrayKernels.isUseful()) {
+                    return new RoutedArrayKernels(new VectorArrayKernels(), new ScalarArrayKernels());
+                }
+            } catch (LinkageError e) {
+                // fall back to scalar loops
+            }
+        }
+        return new ScalarArrayKernels();
+    }
+}
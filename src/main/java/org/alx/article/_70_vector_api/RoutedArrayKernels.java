@@ -0,0 +1,55 @@
+package org.alx.article._70_vector_api;
+
+// Picks the faster implementation per kernel instead of per machine.
+// The reductions gain from SIMD, but the prefix scan is bound by its carry from vector to vector,
+// digitCounts pays for vector division and still increments the counts one lane at a time,
+// and the search touches a single vector at the end of an ordinary binary search, so those stay scalar.
+class RoutedArrayKernels implements ArrayKernels {
+    private final ArrayKernels simd;
+    private final ArrayKernels scalar;
+
+    RoutedArrayKernels(ArrayKernels simd, ArrayKernels scalar) {
+        this.simd = simd;
+        this.scalar = scalar;
+    }
+
+    @Override
+    public long sum(int[] array) {
+        return simd.sum(array);
+    }
+
+    @Override
+    public long sum(long[] array) {
+        return simd.sum(array);
+    }
+
+    @Override
+    public int min(int[] array) {
+        return simd.min(array);
+    }
+
+    @Override
+    public int max(int[] array) {
+        return simd.max(array);
+    }
+
+    @Override
+    public int[] prefixSum(int[] array) {
+        return scalar.prefixSum(array);
+    }
+
+    @Override
+    public void digitCounts(int[] array, int exp, int[] count) {
+        scalar.digitCounts(array, exp, count);
+    }
+
+    @Override
+    public int binarySearch(int[] sorted, int target) {
+        return scalar.binarySearch(sorted, target);
+    }
+
+    @Override
+    public String name() {
+        return simd.name() + " sum/min/max, scalar prefix/digits/search";
+    }
+}
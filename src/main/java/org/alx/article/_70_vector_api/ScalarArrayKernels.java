@@ -0,0 +1,78 @@
+package org.alx.article._70_vector_api;
+
+public class ScalarArrayKernels implements ArrayKernels {
+
+    @Override
+    public long sum(int[] array) {
+        long sum = 0;
+        for (int value : array) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] array) {
+        long sum = 0;
+        for (long value : array) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public int min(int[] array) {
+        int min = Integer.MAX_VALUE;
+        for (int value : array) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] array) {
+        int max = Integer.MIN_VALUE;
+        for (int value : array) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    @Override
+    public int[] prefixSum(int[] array) {
+        int[] prefix = new int[array.length + 1];
+        for (int i = 0; i < array.length; i++) {
+            prefix[i + 1] = prefix[i] + array[i];
+        }
+        return prefix;
+    }
+
+    @Override
+    public void digitCounts(int[] array, int exp, int[] count) {
+        for (int value : array) {
+            count[(value / exp) % 10]++;
+        }
+    }
+
+    @Override
+    public int binarySearch(int[] sorted, int target) {
+        int left = 0;
+        int right = sorted.length - 1;
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            if (sorted[mid] == target) {
+                return mid;
+            } else if (sorted[mid] < target) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,143 @@
+package org.alx.article._70_vector_api;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD versions of the kernels, every loop handles whole vectors and finishes the tail with scalar code.
+// Only loaded through ArrayKernels.select(), so the class is never touched when the module is missing.
+// select() routes only sum, min and max here; the other kernels are kept to compare against the scalar ones.
+public class VectorArrayKernels implements ArrayKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    // Long lanes of the same bit size as INTS, ints are widened into it two halves at a time
+    private static final VectorSpecies<Long> WIDE = VectorSpecies.of(long.class, INTS.vectorShape());
+
+    static boolean isUseful() {
+        return INTS.length() > 1;
+    }
+
+    @Override
+    public long sum(int[] array) {
+        LongVector acc = LongVector.zero(WIDE);
+        int i = 0;
+        for (int bound = INTS.loopBound(array.length); i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, array, i);
+            acc = acc.add((LongVector) v.convert(VectorOperators.I2L, 0))
+                    .add((LongVector) v.convert(VectorOperators.I2L, 1));
+        }
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] array) {
+        LongVector acc = LongVector.zero(LONGS);
+        int i = 0;
+        for (int bound = LONGS.loopBound(array.length); i < bound; i += LONGS.length()) {
+            acc = acc.add(LongVector.fromArray(LONGS, array, i));
+        }
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int min(int[] array) {
+        IntVector acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = 0;
+        for (int bound = INTS.loopBound(array.length); i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, array, i));
+        }
+        int min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < array.length; i++) {
+            min = Math.min(min, array[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] array) {
+        IntVector acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = 0;
+        for (int bound = INTS.loopBound(array.length); i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, array, i));
+        }
+        int max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < array.length; i++) {
+            max = Math.max(max, array[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int[] prefixSum(int[] array) {
+        int[] prefix = new int[array.length + 1];
+        int length = INTS.length();
+        IntVector zero = IntVector.zero(INTS);
+        int carry = 0;
+        int i = 0;
+        for (int bound = INTS.loopBound(array.length); i < bound; i += length) {
+            // In-register scan in log2(length) steps: add the vector shifted right by 1, 2, 4, ... lanes
+            IntVector v = IntVector.fromArray(INTS, array, i);
+            for (int shift = 1; shift < length; shift <<= 1) {
+                v = v.add(zero.slice(length - shift, v));
+            }
+            v.add(carry).intoArray(prefix, i + 1);
+            carry += v.lane(length - 1);
+        }
+        for (; i < array.length; i++) {
+            prefix[i + 1] = prefix[i] + array[i];
+        }
+        return prefix;
+    }
+
+    @Override
+    public void digitCounts(int[] array, int exp, int[] count) {
+        // Digits are extracted a vector at a time, the increments stay scalar since lanes may collide
+        int[] digits = new int[INTS.length()];
+        int i = 0;
+        for (int bound = INTS.loopBound(array.length); i < bound; i += INTS.length()) {
+            IntVector quotient = IntVector.fromArray(INTS, array, i).div(exp);
+            quotient.sub(quotient.div(10).mul(10)).intoArray(digits, 0);
+            for (int digit : digits) {
+                count[digit]++;
+            }
+        }
+        for (; i < array.length; i++) {
+            count[(array[i] / exp) % 10]++;
+        }
+    }
+
+    @Override
+    public int binarySearch(int[] sorted, int target) {
+        // Narrow the lower bound down to one vector of candidates with ordinary binary search,
+        // then compare the whole block against the key at once
+        int low = 0;
+        int high = sorted.length;
+        while (high - low > INTS.length()) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        VectorMask<Integer> inRange = INTS.indexInRange(low, high);
+        IntVector block = IntVector.fromArray(INTS, sorted, low, inRange);
+        int index = low + block.compare(VectorOperators.LT, target).and(inRange).trueCount();
+        return index < sorted.length && sorted[index] == target ? index : -1;
+    }
+
+    @Override
+    public String name() {
+        return "vector " + INTS.vectorBitSize() + "-bit";
+    }
+}
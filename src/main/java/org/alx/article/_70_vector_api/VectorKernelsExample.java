@@ -0,0 +1,61 @@
+package org.alx.article._70_vector_api;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Run with --add-modules jdk.incubator.vector to get the SIMD kernels, without it the scalar ones are used
+public class VectorKernelsExample {
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int[] ints = new int[10_000_000];
+        long[] longs = new long[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(1_000_000);
+            longs[i] = ints[i];
+        }
+        int[] sorted = ints.clone();
+        Arrays.sort(sorted);
+
+        ArrayKernels scalar = new ScalarArrayKernels();
+        ArrayKernels selected = ArrayKernels.select();
+        System.out.println("Selected kernels: " + selected.name());
+
+        for (ArrayKernels kernels : new ArrayKernels[]{scalar, selected}) {
+            for (int round = 0; round < 5; round++) { // first rounds warm up the JIT
+                long start = System.nanoTime();
+                long sum = kernels.sum(ints) + kernels.sum(longs);
+                long sumNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int range = kernels.max(ints) - kernels.min(ints);
+                long minMaxNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int[] prefix = kernels.prefixSum(ints);
+                long prefixNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int[] count = new int[10];
+                kernels.digitCounts(ints, 100, count);
+                long digitNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int found = 0;
+                for (int i = 0; i < 1_000_000; i++) {
+                    if (kernels.binarySearch(sorted, i) >= 0) {
+                        found++;
+                    }
+                }
+                long searchNanos = System.nanoTime() - start;
+
+                if (round == 4) {
+                    System.out.printf("%-16s sum=%d (%d us) range=%d (%d us) prefix=%d (%d us) digits=%s (%d us) found=%d (%d us)%n",
+                            kernels.name(), sum, sumNanos / 1_000, range, minMaxNanos / 1_000,
+                            prefix[prefix.length - 1], prefixNanos / 1_000, Arrays.toString(count), digitNanos / 1_000,
+                            found, searchNanos / 1_000);
+                }
+            }
+        }
+    }
+}